@@ -0,0 +1,47 @@
+package lablabu.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generated histories for the benchmarks: sessions spread over the twenty years before lastDay,
+ * canonical times with whole seconds, like sessions recorded by the timer.
+ */
+public final class BenchSessions {
+    public static final String[] CATEGORIES = {"English", "Coding", "AI", "Math", "Piano", "Reading"};
+    // Always prints the seconds, unlike LocalDateTime.toString()
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private BenchSessions() {
+    }
+
+    public static List<Session> generate(int count, LocalDate lastDay, long seed) {
+        Random random = new Random(seed);
+        List<Session> sessions = new ArrayList<>(count);
+        // About twenty years of history whatever the count (Session times cover 1678-2261)
+        int perDay = Math.max(1, count / 7300);
+        LocalDate firstDay = lastDay.minusDays(count / perDay);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = firstDay.plusDays(i / perDay).atTime(8, 0)
+                    .plusSeconds(random.nextInt(14 * 3600));
+            long duration = 300 + random.nextInt(5400);
+            sessions.add(new Session(CATEGORIES[random.nextInt(CATEGORIES.length)], duration,
+                    start.toLocalDate().toString(), start.format(TIME), start.plusSeconds(duration).format(TIME)));
+        }
+        return sessions;
+    }
+
+    public static AppState state(int count, LocalDate lastDay, long seed) {
+        AppState state = new AppState();
+        for (String name : CATEGORIES) {
+            state.addCategory(new Category(name, "#79f5b0"));
+        }
+        state.setSessions(generate(count, lastDay, seed));
+        state.rebuildDurationSketches();
+        return state;
+    }
+}
@@ -0,0 +1,106 @@
+package lablabu.model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Retained heap of a loaded history: the compact Session against the old layout, which kept the
+ * category, the date and both times as separate Strings per session (as Gson created them).
+ *
+ * Usage: SessionFootprint [SESSIONS...] (default 1000000)
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=lablabu.model.SessionFootprint -Dbench.jvm=-Xmx3g
+ */
+public class SessionFootprint {
+    // The fields of Session before it was made compact
+    private static final class TextSession {
+        private final String category;
+        private final long durationSeconds;
+        private final String date;
+        private final String startTime;
+        private final String endTime;
+
+        TextSession(String category, long durationSeconds, String date, String startTime, String endTime) {
+            this.category = category;
+            this.durationSeconds = durationSeconds;
+            this.date = date;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1_000_000};
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int count) {
+        // Generated up front so that only the list being measured is built in between
+        List<String[]> text = text(count);
+        long before = settledHeap();
+        List<TextSession> old = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] fields = text.get(i);
+            // Copies, like the strings a parser creates for every field it reads
+            old.add(new TextSession(copy(fields[0]), 60, copy(fields[1]), copy(fields[2]), copy(fields[3])));
+        }
+        long oldBytes = settledHeap() - before;
+        check(old.size(), count);
+        old = null;
+
+        before = settledHeap();
+        List<Session> compact = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] fields = text.get(i);
+            compact.add(new Session(fields[0], 60, fields[1], fields[2], fields[3]));
+        }
+        long compactBytes = settledHeap() - before;
+        check(compact.size(), count);
+
+        System.out.printf("%,d sessions%n", count);
+        report("String fields", oldBytes, count);
+        report("compact", compactBytes, count);
+    }
+
+    private static List<String[]> text(int count) {
+        List<String[]> text = new ArrayList<>(count);
+        for (Session session : BenchSessions.generate(count, LocalDate.of(2024, 3, 1), 1)) {
+            text.add(new String[] {session.getCategory(), session.getDate(), session.getStartTime(), session.getEndTime()});
+        }
+        return text;
+    }
+
+    // new String(String) would share the byte array
+    private static String copy(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static void report(String name, long bytes, int count) {
+        System.out.printf("  %-14s %7.1f MB   %5.1f bytes/session%n", name, bytes / 1e6, (double) bytes / count);
+    }
+
+    private static void check(int size, int count) {
+        if (size != count) {
+            throw new IllegalStateException("expected " + count + " sessions, built " + size);
+        }
+    }
+
+    private static long settledHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return HEAP_POOLS.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+}
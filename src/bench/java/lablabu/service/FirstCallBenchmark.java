@@ -0,0 +1,59 @@
+package lablabu.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lablabu.model.AppState;
+import lablabu.model.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first journal line a fresh JVM writes and reads back, including building the Gson
+ * instance: that is what the first session of a run pays. One call per fork, no warm-up; the
+ * model classes are already loaded by setUp on both sides.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.args="FirstCallBenchmark"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Thread)
+public class FirstCallBenchmark {
+    private JournalRecord record;
+    private ReflectiveModel.Record reflectiveRecord;
+
+    @Setup
+    public void setUp() {
+        AppState state = new AppState();
+        record = JournalRecord.session(state,
+                new Session("Math", 1500, "2024-03-01", "2024-03-01T09:00:15", "2024-03-01T09:25:15"));
+        record.seq = 1;
+        reflectiveRecord = ReflectiveModel.of(record);
+    }
+
+    @Benchmark
+    public JournalRecord handWritten() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(JournalRecord.class, new JournalRecordTypeAdapter())
+                .create();
+        return gson.fromJson(gson.toJson(record), JournalRecord.class);
+    }
+
+    @Benchmark
+    public ReflectiveModel.Record reflective() {
+        Gson gson = new Gson();
+        return gson.fromJson(gson.toJson(reflectiveRecord), ReflectiveModel.Record.class);
+    }
+}
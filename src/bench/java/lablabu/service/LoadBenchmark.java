@@ -0,0 +1,110 @@
+package lablabu.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import lablabu.model.AppState;
+import lablabu.model.BenchSessions;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * Load time and peak heap for data.json with inline sessions (the -Dlablabu.storage=json layout):
+ * the streaming StorageService.load() against the old loader, which parsed the file into a
+ * JsonObject and then bound that tree to AppState.
+ *
+ * Usage: LoadBenchmark [SESSIONS...] (default 100000 1000000)
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=lablabu.service.LoadBenchmark -Dbench.jvm=-Xmx3g
+ */
+public class LoadBenchmark {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T18:00:00Z"), ZoneOffset.UTC);
+    private static final int RUNS = 5;
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {100_000, 1_000_000};
+        LoadBenchmark benchmark = new LoadBenchmark();
+        for (int size : sizes) {
+            benchmark.run(size);
+        }
+    }
+
+    private void run(int sessions) throws Exception {
+        Path directory = Files.createTempDirectory("lablabu-load");
+        try {
+            new StorageService(false, directory, CLOCK).save(BenchSessions.state(sessions, LocalDate.now(CLOCK), 1));
+            Path file = directory.resolve("data.json");
+            System.out.printf("%,d sessions, data.json %.1f MB%n", sessions, Files.size(file) / 1e6);
+
+            measure("streaming", () -> new StorageService(false, directory, CLOCK).load());
+            Gson gson = new Gson();
+            measure("JsonObject", () -> {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+                    return gson.fromJson(json, AppState.class);
+                }
+            });
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // Median time and highest peak heap over RUNS loads, after one warm-up load
+    private void measure(String name, Callable<AppState> load) throws Exception {
+        check(load.call());
+        long[] millis = new long[RUNS];
+        long peak = 0;
+        long retained = 0;
+        AppState state = null;
+        for (int i = 0; i < RUNS; i++) {
+            state = null; // the previous result must not count as the baseline
+            long before = settledHeap();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.nanoTime();
+            state = load.call();
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            long used = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            peak = Math.max(peak, used - before);
+            retained = settledHeap() - before;
+            check(state);
+        }
+        Arrays.sort(millis);
+        System.out.printf("  %-10s %6d ms   peak heap %6.0f MB   retained %5.0f MB%n",
+                name, millis[RUNS / 2], peak / 1e6, retained / 1e6);
+    }
+
+    private static void check(AppState state) {
+        if (state.getSessions().isEmpty()) {
+            throw new IllegalStateException("nothing loaded");
+        }
+    }
+
+    private long settledHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+    }
+}
@@ -0,0 +1,69 @@
+package lablabu.service;
+
+import lablabu.model.BenchSessions;
+import lablabu.model.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two scans StatsService can split on the common ForkJoinPool, sequential (NEVER) against
+ * forked (ALWAYS): SessionAggregate over the whole history, as in an index rebuild, and the
+ * SessionTable hour-of-day scan. The speedup depends on the pool size, set per run with
+ * -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=N
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.args="ParallelStatsBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelStatsBenchmark {
+    @Param({"100000", "1000000"})
+    public int sessions;
+
+    @Param({"NEVER", "ALWAYS"})
+    public ParallelMode mode;
+
+    private List<Session> history;
+    private final SessionTable table = new SessionTable();
+    private int firstDay;
+    private int lastDay;
+
+    @Setup
+    public void setUp() {
+        history = BenchSessions.generate(sessions, LocalDate.of(2024, 3, 1), 1);
+        for (Session session : history) {
+            table.add(session);
+        }
+        table.setParallelMode(mode);
+        firstDay = history.get(0).getEpochDay();
+        lastDay = history.get(sessions - 1).getEpochDay();
+    }
+
+    @Benchmark
+    public SessionAggregate aggregate() {
+        return SessionAggregate.compute(history, 0, history.size(), mode);
+    }
+
+    @Benchmark
+    public long[] hourScan() {
+        long[] seconds = new long[24];
+        table.sumByHour(firstDay, lastDay, null, seconds, new long[24]);
+        return seconds;
+    }
+}
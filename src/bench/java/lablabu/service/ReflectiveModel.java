@@ -0,0 +1,109 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Category;
+import lablabu.model.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The model as plain fields, in the shape Gson's reflective adapter saw it before the
+ * hand-written adapters: Session kept its dates and times as Strings. Only for comparing the
+ * two serialization paths; the JSON is the same.
+ */
+final class ReflectiveModel {
+    private ReflectiveModel() {
+    }
+
+    static final class State {
+        List<CategoryFields> categories;
+        List<SessionFields> sessions;
+        int streak;
+        String lastSessionDate;
+        String theme;
+        String selectedCategory;
+        int pomodoroWorkMinutes;
+        int pomodoroBreakMinutes;
+        long journalSequence;
+    }
+
+    static final class CategoryFields {
+        String name;
+        String color;
+    }
+
+    static final class SessionFields {
+        String category;
+        long durationSeconds;
+        String date;
+        String startTime;
+        String endTime;
+    }
+
+    static final class Record {
+        String type;
+        long seq;
+        SessionFields session;
+        Integer streak;
+        String lastSessionDate;
+        List<CategoryFields> categories;
+        String theme;
+        String selectedCategory;
+        Integer pomodoroWorkMinutes;
+        Integer pomodoroBreakMinutes;
+    }
+
+    static State of(AppState state) {
+        State result = new State();
+        result.categories = categories(state.getCategories());
+        result.sessions = new ArrayList<>(state.getSessions().size());
+        for (Session session : state.getSessions()) {
+            result.sessions.add(of(session));
+        }
+        result.streak = state.getStreak();
+        result.lastSessionDate = state.getLastSessionDate();
+        result.theme = state.getTheme();
+        result.selectedCategory = state.getSelectedCategory();
+        result.pomodoroWorkMinutes = state.getPomodoroWorkMinutes();
+        result.pomodoroBreakMinutes = state.getPomodoroBreakMinutes();
+        result.journalSequence = state.getJournalSequence();
+        return result;
+    }
+
+    static Record of(JournalRecord record) {
+        Record result = new Record();
+        result.type = record.type;
+        result.seq = record.seq;
+        result.session = record.session != null ? of(record.session) : null;
+        result.streak = record.streak;
+        result.lastSessionDate = record.lastSessionDate;
+        result.categories = record.categories != null ? categories(record.categories) : null;
+        result.theme = record.theme;
+        result.selectedCategory = record.selectedCategory;
+        result.pomodoroWorkMinutes = record.pomodoroWorkMinutes;
+        result.pomodoroBreakMinutes = record.pomodoroBreakMinutes;
+        return result;
+    }
+
+    private static SessionFields of(Session session) {
+        SessionFields result = new SessionFields();
+        result.category = session.getCategory();
+        result.durationSeconds = session.getDurationSeconds();
+        result.date = session.getDate();
+        result.startTime = session.getStartTime();
+        result.endTime = session.getEndTime();
+        return result;
+    }
+
+    private static List<CategoryFields> categories(List<Category> categories) {
+        List<CategoryFields> result = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            CategoryFields fields = new CategoryFields();
+            fields.name = category.getName();
+            fields.color = category.getColor();
+            result.add(fields);
+        }
+        return result;
+    }
+}
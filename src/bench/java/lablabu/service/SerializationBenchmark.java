@@ -0,0 +1,127 @@
+package lablabu.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import lablabu.model.AppState;
+import lablabu.model.BenchSessions;
+import lablabu.model.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state cost of data.json and journal lines: SnapshotWriter, SnapshotReader and the
+ * hand-written adapters against Gson's reflective adapter on the same fields (ReflectiveModel).
+ * Both sides produce the same text, which setUp checks. Sketches are left out, the reflective
+ * form never had them.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.args="SerializationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    @Param({"10000"})
+    public int sessions;
+
+    private final Gson gson = new Gson();
+    private final Gson journalGson = new GsonBuilder()
+            .registerTypeAdapter(JournalRecord.class, new JournalRecordTypeAdapter())
+            .create();
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+
+    private AppState state;
+    private ReflectiveModel.State reflectiveState;
+    private String snapshot;
+    private JournalRecord record;
+    private ReflectiveModel.Record reflectiveRecord;
+    private String line;
+
+    @Setup
+    public void setUp() throws IOException {
+        state = new AppState();
+        for (String name : BenchSessions.CATEGORIES) {
+            state.addCategory(new Category(name, "#79f5b0"));
+        }
+        state.setSessions(BenchSessions.generate(sessions, LocalDate.of(2024, 3, 1), 1));
+        state.setDurationSketches(null);
+        reflectiveState = ReflectiveModel.of(state);
+        snapshot = writeSnapshot();
+        check(snapshot, gson.toJson(reflectiveState));
+
+        record = JournalRecord.session(state, state.getSessions().get(sessions - 1));
+        record.seq = 42;
+        reflectiveRecord = ReflectiveModel.of(record);
+        line = journalGson.toJson(record);
+        check(line, gson.toJson(reflectiveRecord));
+    }
+
+    private static void check(String streaming, String reflective) {
+        if (!streaming.equals(reflective)) {
+            throw new IllegalStateException("the two paths write different JSON");
+        }
+    }
+
+    @Benchmark
+    public String writeSnapshot() throws IOException {
+        StringWriter writer = new StringWriter(snapshot != null ? snapshot.length() : 16);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        snapshotWriter.write(jsonWriter, state, null);
+        jsonWriter.flush();
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String writeSnapshotReflective() {
+        return gson.toJson(reflectiveState);
+    }
+
+    @Benchmark
+    public AppState readSnapshot() throws IOException {
+        return new SnapshotReader(gson).read(new JsonReader(new StringReader(snapshot)));
+    }
+
+    @Benchmark
+    public ReflectiveModel.State readSnapshotReflective() {
+        return gson.fromJson(snapshot, ReflectiveModel.State.class);
+    }
+
+    @Benchmark
+    public String writeRecord() {
+        return journalGson.toJson(record);
+    }
+
+    @Benchmark
+    public String writeRecordReflective() {
+        return gson.toJson(reflectiveRecord);
+    }
+
+    @Benchmark
+    public JournalRecord readRecord() {
+        return journalGson.fromJson(line, JournalRecord.class);
+    }
+
+    @Benchmark
+    public ReflectiveModel.Record readRecordReflective() {
+        return gson.fromJson(line, ReflectiveModel.Record.class);
+    }
+}
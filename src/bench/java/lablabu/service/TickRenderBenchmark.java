@@ -0,0 +1,81 @@
+package lablabu.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one display tick. The format benchmarks compare String.format, which the timer used
+ * on every tick, with TimeFormatter. The tick benchmarks run a whole 200 ms tick through
+ * TimerEngine and TimerPool (the window's path), where the label text is only built when the
+ * visible second changes.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.args="TickRenderBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickRenderBenchmark {
+    private static final long TICK_NANOS = 200_000_000L;
+
+    private final TimeFormatter formatter = new TimeFormatter();
+    private int seconds = 0;
+
+    private SimulatedClock engineClock;
+    private ManualTickScheduler engineScheduler;
+    private SimulatedClock poolClock;
+    private ManualTickScheduler poolDriver;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        engineClock = new SimulatedClock(Instant.parse("2024-03-01T09:00:00Z"), ZoneOffset.UTC);
+        engineScheduler = new ManualTickScheduler();
+        TimeFormatter engineFormatter = new TimeFormatter();
+        new TimerEngine(engineScheduler, engineClock::nanoTime, engineClock,
+                shown -> blackhole.consume(engineFormatter.format(shown)), null).start();
+
+        poolClock = new SimulatedClock(Instant.parse("2024-03-01T09:00:00Z"), ZoneOffset.UTC);
+        poolDriver = new ManualTickScheduler();
+        TimerPool pool = new TimerPool(poolDriver, poolClock::nanoTime, poolClock, 200);
+        TimeFormatter poolFormatter = new TimeFormatter();
+        pool.create("Math", shown -> blackhole.consume(poolFormatter.format(shown)), null).start();
+    }
+
+    @Benchmark
+    public String formatStringFormat() {
+        int total = seconds++ % 360_000;
+        return String.format("%02d:%02d:%02d", total / 3600, (total % 3600) / 60, total % 60);
+    }
+
+    @Benchmark
+    public String formatTimeFormatter() {
+        return formatter.format(seconds++ % 360_000);
+    }
+
+    @Benchmark
+    public void engineTick() {
+        engineClock.advanceNanos(TICK_NANOS);
+        engineScheduler.tick();
+    }
+
+    @Benchmark
+    public void poolTick() {
+        poolClock.advanceNanos(TICK_NANOS);
+        poolDriver.tick();
+    }
+}
@@ -0,0 +1,118 @@
+package lablabu;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+import lablabu.service.AppStateRepository;
+import lablabu.service.ExecutorTickScheduler;
+import lablabu.service.PomodoroPhase;
+import lablabu.service.StatsService;
+import lablabu.service.StorageService;
+import lablabu.service.TimeFormatter;
+import lablabu.service.TimerEngine;
+import lablabu.service.TimerMode;
+import lablabu.service.TimerPool;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Terminal timer without JavaFX, running the same TimerEngine as the GUI.
+ * Several categories (comma separated) run side by side on one TimerPool.
+ *
+ * Usage: ConsoleTimer free|pomodoro|custom CATEGORY[,CATEGORY...] [WORK_MINUTES BREAK_MINUTES]
+ * Press Enter to stop. Finished work phases (and a free session of 1+ minute) are saved to data.json.
+ */
+public class ConsoleTimer {
+    private static final long TICK_MILLIS = 100;
+
+    private final Clock clock = Clock.systemDefaultZone();
+    private final AppStateRepository repository = new AppStateRepository(new StorageService(clock));
+    private final StatsService statsService = new StatsService(repository.getState(), clock);
+    private final TimerPool pool = new TimerPool(new ExecutorTickScheduler(TICK_MILLIS), System::nanoTime, clock, TICK_MILLIS);
+    private final List<TimerPool.PooledTimer> timers = new ArrayList<>();
+    private final List<String> shown = new ArrayList<>();
+    private final TimeFormatter formatter = new TimeFormatter();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: ConsoleTimer free|pomodoro|custom CATEGORY[,CATEGORY...] [WORK_MINUTES BREAK_MINUTES]");
+            return;
+        }
+
+        ConsoleTimer timer = new ConsoleTimer();
+        timer.run(TimerMode.valueOf(args[0].toUpperCase()), args[1].split(","),
+                args.length > 2 ? Integer.parseInt(args[2]) : timer.repository.getState().getPomodoroWorkMinutes(),
+                args.length > 3 ? Integer.parseInt(args[3]) : timer.repository.getState().getPomodoroBreakMinutes());
+    }
+
+    private void run(TimerMode mode, String[] categories, int workMinutes, int breakMinutes) throws Exception {
+        for (String category : categories) {
+            int index = timers.size();
+            TimerPool.PooledTimer[] holder = new TimerPool.PooledTimer[1];
+            holder[0] = pool.create(category, seconds -> print(index, holder[0], seconds),
+                    () -> onPhaseComplete(holder[0]));
+            shown.add("");
+            timers.add(holder[0]);
+
+            TimerEngine engine = holder[0].getEngine();
+            engine.setCustomWorkMinutes(workMinutes);
+            engine.setCustomBreakMinutes(breakMinutes);
+            engine.setMode(mode);
+        }
+        for (TimerPool.PooledTimer timer : timers) {
+            timer.start();
+        }
+
+        if (repository.getStorageProblem() != null) {
+            System.out.println(repository.getStorageProblem());
+        }
+        System.out.println(mode + " timer for " + String.join(", ", categories) + " - press Enter to stop");
+        System.in.read();
+
+        for (TimerPool.PooledTimer timer : timers) {
+            timer.stop();
+            if (mode == TimerMode.FREE && timer.getEngine().getSecondsPassed() >= 60) {
+                saveSession(timer.getCategory(), timer.getEngine());
+            }
+        }
+        System.out.println();
+        repository.close();
+    }
+
+    // Callbacks all run on the pool's driver thread
+    private void print(int index, TimerPool.PooledTimer timer, int seconds) {
+        TimerEngine engine = timer.getEngine();
+        String phase = engine.getMode() == TimerMode.FREE ? "Focus"
+                : engine.getPomodoroPhase() == PomodoroPhase.WORK ? "Focus" : "Break";
+        shown.set(index, timer.getCategory() + " " + phase + " " + formatter.format(seconds));
+        System.out.print("\r" + String.join(" | ", shown) + " ");
+    }
+
+    // Phases alternate until the user stops
+    private void onPhaseComplete(TimerPool.PooledTimer timer) {
+        TimerEngine engine = timer.getEngine();
+        if (engine.getPomodoroPhase() == PomodoroPhase.WORK) {
+            saveSession(timer.getCategory(), engine);
+            System.out.println("\n" + timer.getCategory() + ": work session complete! Time for a break.");
+        } else {
+            System.out.println("\n" + timer.getCategory() + ": break complete!");
+        }
+        engine.nextPomodoroPhase();
+        timer.start();
+    }
+
+    private synchronized void saveSession(String category, TimerEngine engine) {
+        AppState state = repository.getState();
+        int seconds = engine.getSecondsPassed();
+        Session session = engine.getStartedAt() != null && engine.getEndedAt() != null
+                ? new Session(category, seconds, engine.getStartedAt(), engine.getEndedAt(), clock.getZone())
+                : new Session(category, seconds, LocalDate.now(clock).toString(), clock);
+        statsService.calculateStreak(session);
+
+        state.addSession(session);
+        state.setLastSessionDate(session.getDate());
+        repository.appendSession(session);
+    }
+}
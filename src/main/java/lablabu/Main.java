@@ -5,18 +5,32 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.Parent;
 import javafx.stage.Stage;
+import lablabu.controller.MainController;
+import lablabu.controller.TimerController;
 import lablabu.model.AppState;
+import lablabu.service.AppStateRepository;
 import lablabu.service.StorageService;
 
+import java.time.Clock;
+
 public class Main extends Application {
 
+    private AppStateRepository repository;
+    // Single time source for controllers and services
+    private final Clock clock = Clock.systemDefaultZone();
+    private TimerController controller;
+
     @Override
     public void start(Stage stage) throws Exception {
-        StorageService storage = new StorageService();
-        AppState state = storage.load();
+        // Load data once; controllers share this state
+        repository = new AppStateRepository(new StorageService(clock));
+        AppState state = repository.getState();
+        System.out.printf("Loaded %d sessions in %.1f ms%n", state.getSessions().size(), repository.getLoadMillis());
 
         FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/lablabu/main-view-v2.fxml"));
+        fxmlLoader.setControllerFactory(this::createController);
         Parent root = fxmlLoader.load();
+        controller = fxmlLoader.getController();
 
         Scene scene = new Scene(root, 900, 650);
 
@@ -34,6 +48,30 @@ public class Main extends Application {
         stage.show();
     }
 
+    private Object createController(Class<?> type) {
+        if (type == TimerController.class) {
+            return new TimerController(repository, clock);
+        }
+        if (type == MainController.class) {
+            return new MainController(repository, clock);
+        }
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create controller " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
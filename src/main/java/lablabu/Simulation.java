@@ -0,0 +1,264 @@
+package lablabu;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+import lablabu.service.ManualTickScheduler;
+import lablabu.service.PomodoroPhase;
+import lablabu.service.SimulatedClock;
+import lablabu.service.StatsQuery;
+import lablabu.service.StatsResult;
+import lablabu.service.StatsService;
+import lablabu.service.StatsSnapshot;
+import lablabu.service.TimerEngine;
+import lablabu.service.TimerMode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Months of pomodoro use on a SimulatedClock, thousands of times faster than real time.
+ * Covers midnight rollovers, skipped days (streak resets) and laptop sleeps, and checks
+ * the streak and stats against a brute-force recount. Nothing is written to disk.
+ *
+ * Usage: Simulation [DAYS] [SEED] [ZONE]
+ * Exits with status 1 on a mismatch.
+ */
+public class Simulation {
+    // Same repaint interval as the GUI
+    private static final long TICK_NANOS = 200_000_000L;
+    private static final String[] CATEGORIES = {"English", "Coding", "AI", "Math"};
+
+    private final SimulatedClock clock;
+    private final Random random;
+    private final ManualTickScheduler scheduler = new ManualTickScheduler();
+    private final AppState state = new AppState();
+    private final StatsService statsService;
+    private final TimerEngine engine;
+
+    private String category;
+    private boolean phaseDone;
+    private long ticks = 0;
+    private int sleeps = 0;
+    private int streakResets = 0;
+    private int mismatches = 0;
+
+    private Simulation(Instant start, ZoneId zone, long seed) {
+        clock = new SimulatedClock(start, zone);
+        random = new Random(seed);
+        statsService = new StatsService(state, clock);
+        engine = new TimerEngine(scheduler, clock::nanoTime, clock, seconds -> { }, this::onPhaseComplete);
+        engine.setOnSleep(slept -> sleeps++);
+        engine.setMode(TimerMode.POMODORO);
+    }
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 180;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        ZoneId zone = args.length > 2 ? ZoneId.of(args[2]) : ZoneId.systemDefault();
+
+        LocalDate firstDay = LocalDate.of(2026, 1, 1);
+        Simulation simulation = new Simulation(firstDay.atStartOfDay(zone).toInstant(), zone, seed);
+
+        long start = System.nanoTime();
+        simulation.run(firstDay, days);
+        double realMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.println(simulation.report(days, realMillis));
+        if (simulation.mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private void run(LocalDate firstDay, int days) {
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDay.plusDays(day);
+            if (random.nextInt(10) == 0) {
+                continue; // day off
+            }
+
+            // Mostly daytime; sometimes a late start that runs past midnight
+            LocalTime startTime = random.nextInt(10) == 0
+                    ? LocalTime.of(23, 40)
+                    : LocalTime.of(8, 0).plusMinutes(random.nextInt(10 * 60));
+            advanceTo(LocalDateTime.of(date, startTime));
+
+            int cycles = 1 + random.nextInt(6);
+            for (int i = 0; i < cycles; i++) {
+                category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                runPhase(); // work
+                runPhase(); // break
+            }
+            check("today", statsService.getTodayTotal(), bruteForceTotal(LocalDate.now(clock), LocalDate.now(clock)));
+        }
+
+        LocalDate today = LocalDate.now(clock);
+        check("week", statsService.getWeekTotal(), bruteForceTotal(today.minusDays(6), today));
+        check("month", statsService.getMonthTotal(), bruteForceTotal(today.minusDays(29), today));
+        check("all time", statsService.getAllTimeTotal(), bruteForceTotal(LocalDate.MIN, LocalDate.MAX));
+        for (String name : CATEGORIES) {
+            check(name, statsService.getCategoryTotal(name), bruteForceTotal(name, LocalDate.MIN, LocalDate.MAX));
+            check(name + " 90 days", statsService.getRangeTotal(name, today.minusDays(89), today),
+                    bruteForceTotal(name, today.minusDays(89), today));
+        }
+        long heatmapTotal = 0;
+        for (long seconds : statsService.getYearHeatmap()) {
+            heatmapTotal += seconds;
+        }
+        check("year heatmap", heatmapTotal, bruteForceTotal(today.minusDays(364), today));
+        checkQueries(today);
+        checkSnapshot(today);
+        check("streak", state.getStreak(), bruteForceStreak());
+        check("longest streak", statsService.getLongestStreak(), bruteForceLongestStreak());
+    }
+
+    private void checkQueries(LocalDate today) {
+        StatsQuery weekByDay = StatsQuery.all().between(today.minusDays(6), today).groupBy(StatsQuery.GroupBy.DAY);
+        StatsResult result = statsService.query(weekByDay);
+        check("query week", (long) result.getTotal(), bruteForceTotal(today.minusDays(6), today));
+        check("query week groups", result.getGroups().size(), 7);
+        check("query cached", statsService.query(weekByDay) == result ? 1 : 0, 1);
+
+        for (String name : CATEGORIES) {
+            StatsQuery byMonth = StatsQuery.all().categories(name).groupBy(StatsQuery.GroupBy.MONTH);
+            check("query " + name + " by month", (long) statsService.query(byMonth).getTotal(),
+                    bruteForceTotal(name, LocalDate.MIN, LocalDate.MAX));
+        }
+        StatsQuery sessionsByHour = StatsQuery.all().groupBy(StatsQuery.GroupBy.HOUR).aggregate(StatsQuery.Aggregate.COUNT);
+        check("query count by hour", (long) statsService.query(sessionsByHour).getTotal(), state.getSessions().size());
+        StatsQuery sessionsByWeek = StatsQuery.all().groupBy(StatsQuery.GroupBy.WEEK).aggregate(StatsQuery.Aggregate.COUNT);
+        check("query count by week", (long) statsService.query(sessionsByWeek).getTotal(), state.getSessions().size());
+    }
+
+    private void checkSnapshot(LocalDate today) {
+        StatsSnapshot snapshot = statsService.snapshot();
+        check("snapshot today", snapshot.getToday(), bruteForceTotal(today, today));
+        check("snapshot week", snapshot.getWeek(), bruteForceTotal(today.minusDays(6), today));
+        check("snapshot month", snapshot.getMonth(), bruteForceTotal(today.minusDays(29), today));
+        check("snapshot all time", snapshot.getAllTime(), bruteForceTotal(LocalDate.MIN, LocalDate.MAX));
+        check("snapshot longest streak", snapshot.getLongestStreak(), bruteForceLongestStreak());
+        for (StatsSnapshot.CategoryTotals totals : snapshot.getCategories()) {
+            String name = totals.getCategory();
+            check(name + " snapshot today", totals.getToday(), bruteForceTotal(name, today, today));
+            check(name + " snapshot week", totals.getWeek(), bruteForceTotal(name, today.minusDays(6), today));
+            check(name + " snapshot month", totals.getMonth(), bruteForceTotal(name, today.minusDays(29), today));
+            check(name + " snapshot all time", totals.getAllTime(), bruteForceTotal(name, LocalDate.MIN, LocalDate.MAX));
+        }
+        check("snapshot reused", statsService.snapshot() == snapshot ? 1 : 0, 1);
+    }
+
+    /**
+     * Tick until the phase completes; a sleep now and then may pause the timer, which is resumed
+     */
+    private void runPhase() {
+        phaseDone = false;
+        while (!phaseDone) {
+            if (!engine.isRunning()) {
+                engine.start();
+            }
+            if (random.nextInt(200_000) == 0) {
+                clock.sleep(Duration.ofMinutes(5 + random.nextInt(120)));
+            }
+            clock.advanceNanos(TICK_NANOS);
+            scheduler.tick();
+            ticks++;
+        }
+        engine.nextPomodoroPhase();
+    }
+
+    // Runs inside tick(), like the GUI callback
+    private void onPhaseComplete() {
+        phaseDone = true;
+        if (engine.getPomodoroPhase() != PomodoroPhase.WORK) {
+            return;
+        }
+        Session session = new Session(category, engine.getSecondsPassed(),
+                engine.getStartedAt(), engine.getEndedAt(), clock.getZone());
+        int streakBefore = state.getStreak();
+        statsService.calculateStreak(session);
+        if (streakBefore > 1 && state.getStreak() == 1) {
+            streakResets++;
+        }
+        state.addSession(session);
+        state.setLastSessionDate(session.getDate());
+    }
+
+    private void advanceTo(LocalDateTime target) {
+        Duration until = Duration.between(clock.instant(), target.atZone(clock.getZone()).toInstant());
+        if (!until.isNegative()) {
+            clock.advance(until);
+        }
+    }
+
+    private long bruteForceTotal(LocalDate from, LocalDate to) {
+        return bruteForceTotal(null, from, to);
+    }
+
+    // Category null means all categories
+    private long bruteForceTotal(String category, LocalDate from, LocalDate to) {
+        long total = 0;
+        for (Session session : state.getSessions()) {
+            LocalDate date = LocalDate.parse(session.getDate());
+            boolean inCategory = category == null || category.equals(session.getCategory());
+            if (inCategory && !date.isBefore(from) && !date.isAfter(to)) {
+                total += session.getDurationSeconds();
+            }
+        }
+        return total;
+    }
+
+    // Length of the run of consecutive days ending at the last session
+    private long bruteForceStreak() {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Session session : state.getSessions()) {
+            days.add(LocalDate.parse(session.getDate()));
+        }
+        if (days.isEmpty()) {
+            return 0;
+        }
+        long streak = 0;
+        for (LocalDate day = days.last(); days.contains(day); day = day.minusDays(1)) {
+            streak++;
+        }
+        return streak;
+    }
+
+    private long bruteForceLongestStreak() {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (Session session : state.getSessions()) {
+            days.add(LocalDate.parse(session.getDate()));
+        }
+        long longest = 0;
+        long run = 0;
+        LocalDate previous = null;
+        for (LocalDate day : days) {
+            run = previous != null && previous.plusDays(1).equals(day) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = day;
+        }
+        return longest;
+    }
+
+    private void check(String what, long actual, long expected) {
+        if (actual != expected) {
+            mismatches++;
+            System.out.println("MISMATCH " + what + " on " + LocalDate.now(clock) + ": " + actual + " != " + expected);
+        }
+    }
+
+    private String report(int days, double realMillis) {
+        List<Session> sessions = state.getSessions();
+        // Speed is measured over time the timer was ticking, not idle nights and days off
+        double simulatedMillis = ticks * (TICK_NANOS / 1_000_000.0);
+        return String.format("Simulated %d days (%s): %d sessions, %d ticks, %d streak resets, %d sleeps%n"
+                        + "%.0f ms real time, %.0fx real speed, %d mismatches",
+                days, clock.getZone(), sessions.size(), ticks, streakResets, sleeps,
+                realMillis, simulatedMillis / realMillis, mismatches);
+    }
+}
@@ -6,11 +6,12 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
 import lablabu.model.AppState;
 import lablabu.model.Session;
-import lablabu.service.StorageService;
+import lablabu.service.AppStateRepository;
+import lablabu.service.StatsService;
 import lablabu.service.TimerService;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 public class MainController {
 
@@ -21,21 +22,30 @@ public class MainController {
     @FXML private Button startPauseButton;
 
     private TimerService timerService;
-    private final StorageService storageService = new StorageService();
+    private final AppStateRepository repository;
+    private final Clock clock;
     private AppState state;
+    private StatsService statsService;
     private boolean running = false;
+    private int activeDotIndex = -1;
+
+    public MainController(AppStateRepository repository, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
 
     /**
      * Initialize on window launch
      */
     public void initialize() {
-        state = storageService.load();
+        state = repository.getState();
+        statsService = new StatsService(state, clock);
 
         // Setup timer: update text and dots every second
         timerService = new TimerService(time -> {
             timerLabel.setText(time);
             updateProgressDots(timerService.getSecondsPassed());
-        });
+        }, null, System::nanoTime, clock);
 
         // Create 8 progress dots (like in Kairu)
         setupProgressDots();
@@ -84,40 +94,19 @@ public class MainController {
      * Save data to JSON
      */
     private void saveCurrentSession(int duration) {
-        String today = LocalDate.now().toString();
+        String today = LocalDate.now(clock).toString();
 
-        calculateStreak(today);
+        Session newSession = new Session("Focus", duration, today, clock);
+        statsService.calculateStreak(newSession);
 
         // Add new session to the list
-        Session newSession = new Session("Focus", duration, today);
-        state.getSessions().add(newSession);
+        state.addSession(newSession);
         state.setLastSessionDate(today);
 
-        storageService.save(state);
+        repository.appendSession(newSession);
         updateStreakUI();
     }
 
-    /**
-     * Streak calculation logic (consecutive days)
-     */
-    private void calculateStreak(String today) {
-        String lastDateStr = state.getLastSessionDate();
-        if (lastDateStr == null || lastDateStr.isEmpty()) {
-            state.setStreak(1);
-            return;
-        }
-
-        LocalDate lastDate = LocalDate.parse(lastDateStr);
-        LocalDate todayDate = LocalDate.parse(today);
-        long daysBetween = ChronoUnit.DAYS.between(lastDate, todayDate);
-
-        if (daysBetween == 1) {
-            state.setStreak(state.getStreak() + 1);
-        } else if (daysBetween > 1) {
-            state.setStreak(1); // Reset if a day was skipped
-        }
-    }
-
     private void setupProgressDots() {
         progressDots.getChildren().clear();
         for (int i = 0; i < 8; i++) {
@@ -126,19 +115,30 @@ public class MainController {
             dot.setOpacity(0.25); // Dots are dim by default
             progressDots.getChildren().add(dot);
         }
+        activeDotIndex = -1;
     }
 
     private void updateProgressDots(int secondsPassed) {
         double fraction = Math.min(1.0, (double) secondsPassed / 1800);
         int activeIndex = (int) Math.floor(fraction * 8);
+        if (activeIndex == activeDotIndex) {
+            return; // Nothing visible changed
+        }
 
-        for (int i = 0; i < progressDots.getChildren().size(); i++) {
+        // Only dots between the old and new index change opacity
+        int from = Math.max(0, Math.min(activeIndex, activeDotIndex) + 1);
+        int to = Math.min(progressDots.getChildren().size() - 1, Math.max(activeIndex, activeDotIndex));
+        if (activeDotIndex < 0) {
+            from = 0;
+        }
+        for (int i = from; i <= to; i++) {
             javafx.scene.shape.Circle dot = (javafx.scene.shape.Circle) progressDots.getChildren().get(i);
             dot.setOpacity(i <= activeIndex ? 1.0 : 0.25);
         }
+        activeDotIndex = activeIndex;
     }
 
     private void updateStreakUI() {
-        streakLabel.setText("🔥 Streak: " + state.getStreak() + " days");
+        streakLabel.setText("🔥 Streak: " + statsService.getCurrentStreak() + " days");
     }
 }
@@ -9,16 +9,37 @@ import javafx.util.Duration;
 import lablabu.model.AppState;
 import lablabu.model.Category;
 import lablabu.model.Session;
+import lablabu.service.AppStateRepository;
+import lablabu.service.FxTickScheduler;
+import lablabu.service.PomodoroPhase;
+import lablabu.service.SessionCheckpoint;
 import lablabu.service.StatsService;
-import lablabu.service.StorageService;
-import lablabu.service.TimerService;
+import lablabu.service.StatsSnapshot;
+import lablabu.service.TimeFormatter;
+import lablabu.service.TimerEngine;
+import lablabu.service.TimerMode;
+import lablabu.service.TimerPool;
 import javafx.scene.media.AudioClip;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 public class TimerController {
+    // How often a running session is checkpointed
+    private static final int CHECKPOINT_SECONDS = 5;
+
+    // Driver tick of the timer pool; elapsed time comes from the monotonic clock, not from ticks
+    private static final long TICK_MILLIS = 200;
 
     // UI elements
     @FXML private Label timerLabel;
@@ -30,6 +51,7 @@ public class TimerController {
     @FXML private VBox sideMenu;
     @FXML private ComboBox<String> modeComboBox;
     @FXML private ListView<String> categoryListView;
+    @FXML private ListView<String> runningListView;
     @FXML private TextArea statsTextArea;
     @FXML private RadioButton lightThemeRadio;
     @FXML private RadioButton darkThemeRadio;
@@ -37,23 +59,63 @@ public class TimerController {
     @FXML private TextField breakMinutesField;
 
     // Services
-    private TimerService timerService;
-    private final StorageService storageService = new StorageService();
+    private TimerPool timerPool;
+    private final AppStateRepository repository;
+    private final Clock clock;
     private StatsService statsService;
     private AppState state;
     private AudioClip dingSound;
 
-    private boolean running = false;
-    private String selectedCategory = "";
+    // One timer per category, all driven by the pool; the selected one is shown in the circle
+    private final Map<String, CategoryTimer> timers = new LinkedHashMap<>();
+    private final List<CategoryTimer> activeTimers = new ArrayList<>(); // rows of runningListView
+    private CategoryTimer current;
+    private boolean syncingControls = false;
     private boolean menuOpen = false;
 
+    // Checkpoint files, one per timer holding unsaved time
+    private final List<SessionCheckpoint> checkpoints = new ArrayList<>();
+    private final Deque<SessionCheckpoint> freeCheckpoints = new ArrayDeque<>();
+
+    /**
+     * A category's timer on the shared pool and what the window shows for it
+     */
+    private final class CategoryTimer {
+        private final String category;
+        private final TimerPool.PooledTimer pooled;
+        private final TimerEngine engine;
+        private final TimeFormatter formatter = new TimeFormatter();
+        private boolean running = false;  // started and not paused (a sleep may still stop the engine)
+        private String display = "00:00:00";
+        private int lastCheckpointSeconds = 0;
+        private SessionCheckpoint checkpoint;
+
+        private CategoryTimer(String category) {
+            this.category = category;
+            this.pooled = timerPool.create(category, seconds -> updateTimerDisplay(this, seconds),
+                    () -> handlePomodoroPhaseComplete(this));
+            this.engine = pooled.getEngine();
+            engine.setOnSleep(slept -> handleSleep(this, slept));
+        }
+
+        // Has time that is not saved yet
+        private boolean isActive() {
+            return running || engine.getElapsedNanos() > 0;
+        }
+    }
+
+    public TimerController(AppStateRepository repository, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+    }
+
     /**
      * Controller initialization
      */
     public void initialize() {
-        // Load data
-        state = storageService.load();
-        statsService = new StatsService(state);
+        // Shared state, loaded once in Main
+        state = repository.getState();
+        statsService = new StatsService(state, clock);
 
         // Load sound
         try {
@@ -63,16 +125,12 @@ public class TimerController {
             System.out.println("Sound not loaded");
         }
 
-        // Setup timer with callback for completing Pomodoro phase
-        timerService = new TimerService(this::updateTimerDisplay, this::handlePomodoroPhaseComplete);
+        // All category timers share one Timeline and one timing wheel
+        timerPool = new TimerPool(new FxTickScheduler(TICK_MILLIS), System::nanoTime, clock, TICK_MILLIS);
 
-        // Load saved Custom Timer settings
+        // Set saved Custom Timer values in fields
         int savedWorkMin = state.getPomodoroWorkMinutes();
         int savedBreakMin = state.getPomodoroBreakMinutes();
-        timerService.setCustomWorkMinutes(savedWorkMin);
-        timerService.setCustomBreakMinutes(savedBreakMin);
-
-        // Set values in fields
         if (workMinutesField != null) {
             workMinutesField.setText(String.valueOf(savedWorkMin));
         }
@@ -80,14 +138,27 @@ public class TimerController {
             breakMinutesField.setText(String.valueOf(savedBreakMin));
         }
 
-        // Populate category list
-        updateCategoryList();
-
         // Setup mode combobox
         modeComboBox.getItems().addAll("Free Timer", "Pomodoro", "Custom Timer");
         modeComboBox.setValue("Free Timer");
         modeComboBox.setOnAction(e -> handleModeChange());
 
+        // Selecting a category shows its timer; a running list row shows that timer
+        categoryListView.getSelectionModel().selectedItemProperty().addListener((obs, old, name) -> {
+            if (name != null) {
+                showTimer(timerFor(name));
+            }
+        });
+        runningListView.setOnMouseClicked(e -> {
+            int row = runningListView.getSelectionModel().getSelectedIndex();
+            if (row >= 0 && row < activeTimers.size()) {
+                selectTimer(activeTimers.get(row));
+            }
+        });
+
+        // Populate category list
+        updateCategoryList();
+
         // Update UI
         updateAllStats();
         applyTheme();
@@ -98,58 +169,180 @@ public class TimerController {
         } else {
             darkThemeRadio.setSelected(true);
         }
+
+        // Checkpoints left behind mean the last run ended during sessions
+        List<SessionCheckpoint> interrupted = new ArrayList<>();
+        for (int i = 0; i == 0 || Files.exists(checkpointFile(i)); i++) {
+            SessionCheckpoint slot = new SessionCheckpoint(checkpointFile(i), clock);
+            checkpoints.add(slot);
+            if (slot.getInterrupted() != null) {
+                interrupted.add(slot);
+            } else {
+                freeCheckpoints.add(slot);
+            }
+        }
+        if (!interrupted.isEmpty()) {
+            Platform.runLater(() -> interrupted.forEach(this::offerRestore));
+        }
+
+        String storageProblem = repository.getStorageProblem();
+        if (storageProblem != null) {
+            Platform.runLater(() -> showAlert("Storage Problem", storageProblem, Alert.AlertType.WARNING));
+        }
     }
 
     /**
-     * Update timer display
+     * Stop the timers before the application exits
      */
-    private void updateTimerDisplay(String time) {
-        Platform.runLater(() -> {
-            timerLabel.setText(time);
-        });
+    public void shutdown() {
+        for (CategoryTimer timer : timers.values()) {
+            timer.pooled.stop();
+            // An unsaved session is kept in the checkpoint and offered again on the next start
+            writeCheckpoint(timer);
+        }
+        for (SessionCheckpoint checkpoint : checkpoints) {
+            checkpoint.close();
+        }
+    }
+
+    private static Path checkpointFile(int index) {
+        return Path.of(index == 0 ? "session.checkpoint" : "session-" + index + ".checkpoint");
+    }
+
+    /**
+     * Timer of a category, created stopped with the saved Custom Timer settings
+     */
+    private CategoryTimer timerFor(String category) {
+        CategoryTimer timer = timers.get(category);
+        if (timer == null) {
+            timer = new CategoryTimer(category);
+            timer.engine.setCustomWorkMinutes(state.getPomodoroWorkMinutes());
+            timer.engine.setCustomBreakMinutes(state.getPomodoroBreakMinutes());
+            timers.put(category, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * Show a timer, selecting its category in the list if it is still there
+     */
+    private void selectTimer(CategoryTimer timer) {
+        if (categoryListView.getItems().contains(timer.category)) {
+            categoryListView.getSelectionModel().select(timer.category);
+        } else {
+            // Removed category: nothing selected, the timer stays shown until another is picked
+            categoryListView.getSelectionModel().clearSelection();
+        }
+        showTimer(timer);
+    }
+
+    /**
+     * Make a timer the one shown in the circle and controlled by the buttons
+     */
+    private void showTimer(CategoryTimer timer) {
+        if (timer == current) {
+            return;
+        }
+        current = timer;
+        syncingControls = true;
+        modeComboBox.setValue(modeLabel(timer.engine.getMode()));
+        syncingControls = false;
+        timerLabel.setText(timer.display);
+        updateButtons();
+        updatePhaseDisplay();
+    }
+
+    /**
+     * Update a timer's display (called on the FX thread, only when its shown second changes)
+     */
+    private void updateTimerDisplay(CategoryTimer timer, int seconds) {
+        timer.display = timer.formatter.format(seconds);
+        if (timer == current) {
+            timerLabel.setText(timer.display);
+        }
+        updateRunningRow(timer);
+        if (timer.running && timer.engine.getSecondsPassed() - timer.lastCheckpointSeconds >= CHECKPOINT_SECONDS) {
+            writeCheckpoint(timer);
+        }
+    }
+
+    /**
+     * Keep a timer's row in the running list in step: shown while it has unsaved time
+     */
+    private void updateRunningRow(CategoryTimer timer) {
+        int row = activeTimers.indexOf(timer);
+        if (!timer.isActive()) {
+            if (row >= 0) {
+                activeTimers.remove(row);
+                runningListView.getItems().remove(row);
+            }
+            return;
+        }
+        String text = timer.category + "  " + timer.display + (timer.running ? "" : "  ⏸");
+        if (row < 0) {
+            activeTimers.add(timer);
+            runningListView.getItems().add(text);
+        } else if (!text.equals(runningListView.getItems().get(row))) {
+            runningListView.getItems().set(row, text);
+        }
+    }
+
+    private void updateButtons() {
+        if (current != null && current.running) {
+            startPauseButton.setText("Pause");
+        } else if (current != null && current.isActive()) {
+            startPauseButton.setText("Resume");
+        } else {
+            startPauseButton.setText("Start");
+        }
     }
 
     /**
-     * Handler for Pomodoro/Custom phase completion
+     * Handler for Pomodoro/Custom phase completion of one timer
      */
-    private void handlePomodoroPhaseComplete() {
+    private void handlePomodoroPhaseComplete(CategoryTimer timer) {
         Platform.runLater(() -> {
             // Play sound on natural timer completion
             if (dingSound != null) {
                 dingSound.play();
             }
 
-            if (timerService.getPomodoroPhase() == TimerService.PomodoroPhase.WORK) {
+            TimerEngine engine = timer.engine;
+            timer.running = false;
+            if (engine.getPomodoroPhase() == PomodoroPhase.WORK) {
                 // Work complete - save session
-                saveCurrentSession();
-                statusLabel.setText("✅ Work session complete! Time for a break.");
-
-                // Switch to break
-                timerService.nextPomodoroPhase();
-
-                // Update phaseLabel to "Break"
-                phaseLabel.setText("Break");
+                saveCurrentSession(timer);
+                engine.nextPomodoroPhase();
+                updateRunningRow(timer);
+                if (timer == current) {
+                    updateButtons();
+                    updatePhaseDisplay();
+                    statusLabel.setText("✅ Work session complete! Time for a break.");
+                }
 
                 // Message depends on mode
-                if (timerService.getMode() == TimerService.TimerMode.POMODORO) {
-                    showAlert("Pomodoro Complete!", "Great work! Take a 5-minute break.", Alert.AlertType.INFORMATION);
+                if (engine.getMode() == TimerMode.POMODORO) {
+                    showAlert("Pomodoro Complete!", timer.category + ": Great work! Take a 5-minute break.",
+                            Alert.AlertType.INFORMATION);
                 } else {
-                    int breakMin = timerService.getCustomBreakMinutes();
-                    showAlert("Work Complete!", "Great work! Take a " + breakMin + "-minute break.", Alert.AlertType.INFORMATION);
+                    int breakMin = engine.getCustomBreakMinutes();
+                    showAlert("Work Complete!", timer.category + ": Great work! Take a " + breakMin + "-minute break.",
+                            Alert.AlertType.INFORMATION);
                 }
             } else {
                 // Break complete
-                statusLabel.setText("Break complete! Ready for another session?");
-                timerService.nextPomodoroPhase();
-
-                // Update phaseLabel back to "Focus"
-                phaseLabel.setText("Focus");
+                engine.nextPomodoroPhase();
+                updateRunningRow(timer);
+                if (timer == current) {
+                    updateButtons();
+                    updatePhaseDisplay();
+                    statusLabel.setText("Break complete! Ready for another session?");
+                }
 
-                showAlert("Break Complete!", "Break is over. Ready to focus again?", Alert.AlertType.INFORMATION);
+                showAlert("Break Complete!", timer.category + ": Break is over. Ready to focus again?",
+                        Alert.AlertType.INFORMATION);
             }
 
-            running = false;
-            startPauseButton.setText("Start");
             updateAllStats();
         });
     }
@@ -159,7 +352,7 @@ public class TimerController {
      */
     @FXML
     protected void onToggleSession() {
-        if (!running) {
+        if (current == null || !current.running) {
             startSession();
         } else {
             pauseSession();
@@ -167,37 +360,42 @@ public class TimerController {
     }
 
     /**
-     * Start session
+     * Start (or resume) the shown timer; the other timers keep running
      */
     private void startSession() {
         // Check if category is selected
-        selectedCategory = categoryListView.getSelectionModel().getSelectedItem();
-        if (selectedCategory == null || selectedCategory.isEmpty()) {
+        if (current == null) {
             showAlert("No Category Selected", "Please select a category before starting!", Alert.AlertType.WARNING);
             return;
         }
 
-        timerService.start();
-        running = true;
-        startPauseButton.setText("Pause");
+        CategoryTimer timer = current;
+        timer.pooled.start();
+        timer.running = true;
+        writeCheckpoint(timer);
+        updateRunningRow(timer);
+        updateButtons();
 
         // Update label above timer and status
         updatePhaseDisplay();
     }
 
     /**
-     * Update phase display (Focus/Break)
+     * Update phase display (Focus/Break) of the shown timer
      */
     private void updatePhaseDisplay() {
-        TimerService.TimerMode mode = timerService.getMode();
-        TimerService.PomodoroPhase phase = timerService.getPomodoroPhase();
+        if (current == null) {
+            return;
+        }
+        TimerMode mode = current.engine.getMode();
+        PomodoroPhase phase = current.engine.getPomodoroPhase();
 
         // Update label above timer
-        if (mode == TimerService.TimerMode.FREE) {
+        if (mode == TimerMode.FREE) {
             phaseLabel.setText("Focus");
         } else {
             // Pomodoro or Custom
-            if (phase == TimerService.PomodoroPhase.WORK) {
+            if (phase == PomodoroPhase.WORK) {
                 phaseLabel.setText("Focus");
             } else {
                 phaseLabel.setText("Break");
@@ -205,25 +403,26 @@ public class TimerController {
         }
 
         // Update status at bottom
-        if (mode == TimerService.TimerMode.POMODORO || mode == TimerService.TimerMode.CUSTOM) {
-            if (phase == TimerService.PomodoroPhase.WORK) {
-                statusLabel.setText("🎯 Focusing on " + selectedCategory + "...");
-            } else {
-                statusLabel.setText("☕ Break time - relax!");
-            }
+        if (!current.running) {
+            statusLabel.setText(current.isActive() ? "⏸ Paused" : "Ready to work on " + current.category);
+        } else if ((mode == TimerMode.POMODORO || mode == TimerMode.CUSTOM) && phase == PomodoroPhase.BREAK) {
+            statusLabel.setText("☕ Break time - relax!");
         } else {
-            statusLabel.setText("🎯 Focusing on " + selectedCategory + "...");
+            statusLabel.setText("🎯 Focusing on " + current.category + "...");
         }
     }
 
     /**
-     * Pause
+     * Pause the shown timer
      */
     private void pauseSession() {
-        timerService.stop();
-        running = false;
-        startPauseButton.setText("Resume");
+        CategoryTimer timer = current;
+        timer.pooled.stop();
+        timer.running = false;
+        updateButtons();
         statusLabel.setText("⏸ Paused");
+        writeCheckpoint(timer);
+        updateRunningRow(timer);
     }
 
     /**
@@ -238,6 +437,8 @@ public class TimerController {
         TranslateTransition transition = new TranslateTransition(Duration.millis(300), sideMenu);
 
         if (menuOpen) {
+            // Statistics panel needs the full history, so it is only filled while the menu is open
+            updateStatsPanel();
             sideMenu.setVisible(true);
             transition.setToX(0);
         } else {
@@ -249,81 +450,217 @@ public class TimerController {
     }
 
     /**
-     * Stop button and save session
+     * Stop button: stop the shown timer and save its session
      */
     @FXML
     protected void onStopAndSave() {
-        if (!running && timerService.getSecondsPassed() == 0) {
+        CategoryTimer timer = current;
+        if (timer == null || !timer.running && timer.engine.getSecondsPassed() == 0) {
             showAlert("No Session", "No active session to save.", Alert.AlertType.INFORMATION);
             return;
         }
 
-        timerService.stop();
-        running = false;
+        timer.pooled.stop();
+        timer.running = false;
 
-        int seconds = timerService.getSecondsPassed();
+        int seconds = timer.engine.getSecondsPassed();
         if (seconds >= 60) { // Save only if longer than 1 minute
-            saveCurrentSession();
+            saveCurrentSession(timer);
             statusLabel.setText("✅ Session saved!");
             showAlert("Session Saved", "Great work! Session saved successfully.", Alert.AlertType.INFORMATION);
         } else {
             statusLabel.setText("⚠️ Session too short to save (min 1 minute)");
         }
 
-        timerService.reset();
+        resetTimer(timer);
         updateAllStats();
-        startPauseButton.setText("Start");
+        updateButtons();
         phaseLabel.setText("Focus"); // Reset to Focus
     }
 
     /**
-     * Save current session
+     * Back to zero with the current Custom Timer settings; its checkpoint is freed
      */
-    private void saveCurrentSession() {
-        String today = LocalDate.now().toString();
-        int seconds = timerService.getSecondsPassed();
+    private void resetTimer(CategoryTimer timer) {
+        timer.engine.setCustomWorkMinutes(state.getPomodoroWorkMinutes());
+        timer.engine.setCustomBreakMinutes(state.getPomodoroBreakMinutes());
+        timer.engine.reset();
+        releaseCheckpoint(timer);
+        updateRunningRow(timer);
+    }
+
+    /**
+     * Save a timer's session under its category
+     */
+    private void saveCurrentSession(CategoryTimer timer) {
+        TimerEngine engine = timer.engine;
+        int seconds = engine.getSecondsPassed();
+        Instant start = engine.getStartedAt();
+        Instant end = engine.getEndedAt();
+        if (start != null && end != null) {
+            saveSession(new Session(timer.category, seconds, start, end, clock.getZone()));
+        } else {
+            saveSession(new Session(timer.category, seconds, LocalDate.now(clock).toString(), clock));
+        }
+        releaseCheckpoint(timer);
+    }
+
+    private void saveSession(Session newSession) {
+        String date = newSession.getDate();
 
         // Calculate streak
-        statsService.calculateStreak(today);
+        statsService.calculateStreak(newSession);
 
-        // Create and add session
-        Session newSession = new Session(selectedCategory, seconds, today);
-        state.getSessions().add(newSession);
-        state.setLastSessionDate(today);
+        // Add session
+        state.addSession(newSession);
+        state.setLastSessionDate(date);
 
         // Save
-        storageService.save(state);
+        repository.appendSession(newSession);
         updateAllStats();
     }
 
     /**
-     * Change timer mode
+     * Checkpoint a timer's work in progress (breaks are not sessions, so they are not recorded)
+     */
+    private void writeCheckpoint(CategoryTimer timer) {
+        TimerEngine engine = timer.engine;
+        timer.lastCheckpointSeconds = engine.getSecondsPassed();
+        boolean onBreak = engine.getMode() != TimerMode.FREE
+                && engine.getPomodoroPhase() == PomodoroPhase.BREAK;
+        if (engine.getElapsedNanos() == 0 || onBreak) {
+            return;
+        }
+        if (timer.checkpoint == null) {
+            timer.checkpoint = freeCheckpoints.isEmpty() ? newCheckpoint() : freeCheckpoints.poll();
+        }
+        Instant start = engine.getStartedAt();
+        timer.checkpoint.write(engine.getMode(), engine.getPomodoroPhase(), timer.category,
+                engine.getElapsedNanos(), start != null ? start.toEpochMilli() : clock.millis());
+    }
+
+    private SessionCheckpoint newCheckpoint() {
+        SessionCheckpoint checkpoint = new SessionCheckpoint(checkpointFile(checkpoints.size()), clock);
+        checkpoints.add(checkpoint);
+        return checkpoint;
+    }
+
+    private void releaseCheckpoint(CategoryTimer timer) {
+        if (timer.checkpoint != null) {
+            timer.checkpoint.clear();
+            freeCheckpoints.add(timer.checkpoint);
+            timer.checkpoint = null;
+        }
+    }
+
+    /**
+     * Sleep detected by a timer; with the pause policy the timer has already stopped
+     */
+    private void handleSleep(CategoryTimer timer, long sleptNanos) {
+        if (timer.running && !timer.engine.isRunning()) {
+            timer.running = false;
+            writeCheckpoint(timer);
+            updateRunningRow(timer);
+            if (timer == current) {
+                updateButtons();
+                statusLabel.setText("⏸ Paused - computer was asleep for "
+                        + statsService.formatDuration(sleptNanos / 1_000_000_000L));
+            }
+        }
+    }
+
+    /**
+     * Offer to resume, save or discard a session the last run did not finish
+     */
+    private void offerRestore(SessionCheckpoint slot) {
+        SessionCheckpoint.Interrupted interrupted = slot.getInterrupted();
+        ButtonType resume = new ButtonType("Resume");
+        ButtonType save = new ButtonType("Save");
+        ButtonType discard = new ButtonType("Discard", ButtonBar.ButtonData.CANCEL_CLOSE);
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "", resume, save, discard);
+        alert.setTitle("Interrupted Session");
+        alert.setHeaderText("The app was closed during a session");
+        alert.setContentText(interrupted.getCategory() + ": "
+                + statsService.formatDuration(interrupted.getSeconds()) + " on " + interrupted.getDate()
+                + "\nResume it, save it as it is, or discard it?");
+        if (interrupted.getSeconds() < 60) { // Save only if longer than 1 minute
+            alert.getButtonTypes().remove(save);
+        }
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == resume) {
+            restoreSession(slot, interrupted);
+            return;
+        }
+        if (result.isPresent() && result.get() == save) {
+            Instant start = Instant.ofEpochMilli(interrupted.getStartedAtMillis());
+            Instant end = Instant.ofEpochMilli(interrupted.getSavedAtMillis());
+            saveSession(new Session(interrupted.getCategory(), interrupted.getSeconds(), start, end, clock.getZone()));
+            statusLabel.setText("✅ Interrupted session saved!");
+        }
+        slot.clear();
+        freeCheckpoints.add(slot);
+    }
+
+    /**
+     * Put the interrupted session back on its category's timer, paused
+     */
+    private void restoreSession(SessionCheckpoint slot, SessionCheckpoint.Interrupted interrupted) {
+        CategoryTimer timer = timerFor(interrupted.getCategory());
+        timer.engine.setMode(interrupted.getMode());
+        timer.engine.restore(interrupted.getPhase(), interrupted.getElapsedNanos(), interrupted.getStartedAtMillis());
+        timer.running = false;
+        timer.checkpoint = slot;
+        updateRunningRow(timer);
+
+        // The restored category is kept even if it was removed from the list since
+        current = null;
+        selectTimer(timer);
+        statusLabel.setText("⏸ Restored " + timer.category + " - press Resume");
+        writeCheckpoint(timer);
+    }
+
+    private String modeLabel(TimerMode mode) {
+        if (mode == TimerMode.POMODORO) {
+            return "Pomodoro";
+        } else if (mode == TimerMode.CUSTOM) {
+            return "Custom Timer";
+        }
+        return "Free Timer";
+    }
+
+    /**
+     * Change the mode of the shown timer
      */
     private void handleModeChange() {
+        if (syncingControls || current == null) {
+            return;
+        }
+        CategoryTimer timer = current;
+        TimerEngine engine = timer.engine;
         String mode = modeComboBox.getValue();
         if ("Pomodoro".equals(mode)) {
-            timerService.setMode(TimerService.TimerMode.POMODORO);
-            timerService.setPomodoroPhase(TimerService.PomodoroPhase.WORK);
+            engine.setMode(TimerMode.POMODORO);
+            engine.setPomodoroPhase(PomodoroPhase.WORK);
             statusLabel.setText("Pomodoro mode: 25 min work, 5 min break");
-            phaseLabel.setText("Focus");
         } else if ("Custom Timer".equals(mode)) {
-            timerService.setMode(TimerService.TimerMode.CUSTOM);
-            timerService.setPomodoroPhase(TimerService.PomodoroPhase.WORK);
-            int workMin = timerService.getCustomWorkMinutes();
-            int breakMin = timerService.getCustomBreakMinutes();
+            engine.setMode(TimerMode.CUSTOM);
+            engine.setPomodoroPhase(PomodoroPhase.WORK);
+            int workMin = engine.getCustomWorkMinutes();
+            int breakMin = engine.getCustomBreakMinutes();
             statusLabel.setText("Custom Timer: " + workMin + " min work, " + breakMin + " min break");
-            phaseLabel.setText("Focus");
         } else {
-            timerService.setMode(TimerService.TimerMode.FREE);
+            engine.setMode(TimerMode.FREE);
             statusLabel.setText("Free timer mode");
-            phaseLabel.setText("Focus");
         }
+        phaseLabel.setText("Focus");
 
         // Reset timer on mode change
-        timerService.stop();
-        timerService.reset();
-        running = false;
-        startPauseButton.setText("Start");
+        timer.pooled.stop();
+        timer.running = false;
+        resetTimer(timer);
+        updateButtons();
     }
 
     /**
@@ -341,7 +678,7 @@ public class TimerController {
             if (!name.trim().isEmpty()) {
                 Category newCategory = new Category(name.trim());
                 state.addCategory(newCategory);
-                storageService.save(state);
+                repository.saveSettings();
                 updateCategoryList();
             }
         });
@@ -362,7 +699,7 @@ public class TimerController {
             Optional<ButtonType> result = confirm.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
                 state.removeCategory(selected);
-                storageService.save(state);
+                repository.saveSettings();
                 updateCategoryList();
             }
         }
@@ -387,26 +724,52 @@ public class TimerController {
      * Update all statistics
      */
     private void updateAllStats() {
-        // Streak
-        streakLabel.setText("🔥: " + state.getStreak());
+        // Streak, recomputed from the calendar so missed days reset it
+        streakLabel.setText("🔥: " + statsService.getCurrentStreak());
 
         // Today
         long todaySeconds = statsService.getTodayTotal();
         todayLabel.setText("⏱ : " + statsService.formatDuration(todaySeconds));
 
+        if (menuOpen) {
+            updateStatsPanel();
+        }
+    }
+
+    /**
+     * Update statistics text in the side menu
+     */
+    private void updateStatsPanel() {
+        StatsSnapshot snapshot = statsService.snapshot();
+
         // Statistics
         StringBuilder stats = new StringBuilder();
         stats.append("=== Statistics ===\n\n");
-        stats.append("Today: ").append(statsService.formatDuration(todaySeconds)).append("\n");
-        stats.append("Week: ").append(statsService.formatDuration(statsService.getWeekTotal())).append("\n");
-        stats.append("Month: ").append(statsService.formatDuration(statsService.getMonthTotal())).append("\n");
-        stats.append("All Time: ").append(statsService.formatDuration(statsService.getAllTimeTotal())).append("\n\n");
+        stats.append("Today: ").append(statsService.formatDuration(snapshot.getToday())).append("\n");
+        stats.append("Week: ").append(statsService.formatDuration(snapshot.getWeek())).append("\n");
+        stats.append("Month: ").append(statsService.formatDuration(snapshot.getMonth())).append("\n");
+        stats.append("All Time: ").append(statsService.formatDuration(snapshot.getAllTime())).append("\n");
+        stats.append("Longest Streak: ").append(snapshot.getLongestStreak()).append(" days\n\n");
+
+        stats.append("=== Daily Average ===\n\n");
+        stats.append("7 days: ").append(statsService.formatDuration((long) snapshot.getAverage7())).append("\n");
+        stats.append("30 days: ").append(statsService.formatDuration((long) snapshot.getAverage30())).append("\n");
+        stats.append("90 days: ").append(statsService.formatDuration((long) snapshot.getAverage90())).append("\n\n");
+
+        stats.append("=== Session Length ===\n\n");
+        stats.append("Median: ").append(statsService.formatDuration(Math.round(snapshot.getMedianLength()))).append("\n");
+        stats.append("p90: ").append(statsService.formatDuration(Math.round(snapshot.getP90Length()))).append("\n");
+        stats.append("p99: ").append(statsService.formatDuration(Math.round(snapshot.getP99Length()))).append("\n");
+        if (snapshot.getMostFocusedHour() >= 0) {
+            stats.append("Most focused hour: ").append(String.format("%02d:00", snapshot.getMostFocusedHour())).append("\n");
+        }
+        stats.append("\n");
 
         stats.append("=== By Category ===\n\n");
-        Map<String, Long> categoryStats = statsService.getCategoryStats();
-        for (Map.Entry<String, Long> entry : categoryStats.entrySet()) {
-            stats.append(entry.getKey()).append(": ")
-                 .append(statsService.formatDuration(entry.getValue())).append("\n");
+        for (StatsSnapshot.CategoryTotals category : snapshot.getCategories()) {
+            stats.append(category.getCategory()).append(": ")
+                 .append(statsService.formatDuration(category.getAllTime()))
+                 .append(" (week ").append(statsService.formatDuration(category.getWeek())).append(")\n");
         }
 
         if (statsTextArea != null) {
@@ -425,7 +788,7 @@ public class TimerController {
         } else {
             state.setTheme("dark");
         }
-        storageService.save(state);
+        repository.saveSettings();
         applyTheme();
     }
 
@@ -485,19 +848,22 @@ public class TimerController {
                 return;
             }
 
-            timerService.setCustomWorkMinutes(workMinutes);
-            timerService.setCustomBreakMinutes(breakMinutes);
-
             state.setPomodoroWorkMinutes(workMinutes);
             state.setPomodoroBreakMinutes(breakMinutes);
-            storageService.save(state);
+            repository.saveSettings();
+
+            // Timers in a session keep their durations until they are reset
+            for (CategoryTimer timer : timers.values()) {
+                if (!timer.isActive()) {
+                    resetTimer(timer);
+                }
+            }
 
             showAlert("Settings Applied",
                 "Custom Timer: " + workMinutes + " min work, " + breakMinutes + " min break",
                 Alert.AlertType.INFORMATION);
 
-            if ("Custom Timer".equals(modeComboBox.getValue())) {
-                timerService.reset();
+            if (current != null && current.engine.getMode() == TimerMode.CUSTOM) {
                 statusLabel.setText("Custom Timer: " + workMinutes + " min work, " + breakMinutes + " min break");
             }
 
@@ -1,7 +1,11 @@
 package lablabu.model;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class AppState {
     private List<Category> categories = new ArrayList<>();
@@ -15,6 +19,27 @@ public class AppState {
     private int pomodoroWorkMinutes = 30;
     private int pomodoroBreakMinutes = 10;
 
+    // Last journal record already folded into this snapshot
+    private long journalSequence = 0;
+
+    // Session lengths per category over the whole history, including months not loaded yet.
+    // Null when unknown (files from before sketches existed) until rebuilt from the sessions.
+    private Map<String, DurationSketch> durationSketches = new HashMap<>();
+
+    // Sessions before loadedFrom are read on first use (month partitions, see StorageService)
+    private transient Supplier<List<Session>> olderSessionsLoader;
+    private transient LocalDate loadedFrom;
+
+    // Bumped when the session list is replaced or older sessions are put in front,
+    // so indexes know they cannot just catch up with the appended tail
+    private transient int sessionsGeneration = 0;
+
+    // Bumped on every change to the sessions (appends too), so cached results can tell they are stale
+    private transient long modificationVersion = 0;
+
+    // Name -> category, built on first lookup. Kept in sync by setCategories/addCategory/removeCategory.
+    private transient Map<String, Category> categoryIndex;
+
     public AppState() {
         categories.add(new Category("English", "#79f5b0"));
         categories.add(new Category("Coding", "#65f7a1"));
@@ -23,10 +48,28 @@ public class AppState {
     }
 
     public List<Category> getCategories() { return categories; }
-    public void setCategories(List<Category> categories) { this.categories = categories; }
+    public void setCategories(List<Category> categories) {
+        this.categories = categories;
+        categoryIndex = null;
+    }
 
     public List<Session> getSessions() { return sessions; }
-    public void setSessions(List<Session> sessions) { this.sessions = sessions; }
+    public void setSessions(List<Session> sessions) {
+        this.sessions = sessions;
+        sessionsGeneration++;
+        modificationVersion++;
+    }
+
+    public void addSession(Session session) {
+        sessions.add(session);
+        modificationVersion++;
+        if (durationSketches != null) {
+            recordDuration(durationSketches, session);
+        }
+    }
+
+    public int getSessionsGeneration() { return sessionsGeneration; }
+    public long getModificationVersion() { return modificationVersion; }
 
     public int getStreak() { return streak; }
     public void setStreak(int streak) { this.streak = streak; }
@@ -46,20 +89,106 @@ public class AppState {
     public int getPomodoroBreakMinutes() { return pomodoroBreakMinutes; }
     public void setPomodoroBreakMinutes(int minutes) { this.pomodoroBreakMinutes = minutes; }
 
+    public long getJournalSequence() { return journalSequence; }
+    public void setJournalSequence(long journalSequence) { this.journalSequence = journalSequence; }
+
+    /**
+     * Category -> session-length sketch, rebuilt from the full history if unknown
+     */
+    public Map<String, DurationSketch> getDurationSketches() {
+        if (durationSketches == null) {
+            rebuildDurationSketches();
+        }
+        return durationSketches;
+    }
+
+    /**
+     * Replaces the sketches; null marks them unknown. Sessions are not touched.
+     */
+    public void setDurationSketches(Map<String, DurationSketch> durationSketches) {
+        this.durationSketches = durationSketches;
+    }
+
+    public boolean hasDurationSketches() {
+        return durationSketches != null;
+    }
+
+    public void rebuildDurationSketches() {
+        loadFullHistory();
+        Map<String, DurationSketch> sketches = new HashMap<>();
+        for (Session session : sessions) {
+            recordDuration(sketches, session);
+        }
+        durationSketches = sketches;
+    }
+
+    private static void recordDuration(Map<String, DurationSketch> sketches, Session session) {
+        if (session.getCategory() != null) {
+            sketches.computeIfAbsent(session.getCategory(), name -> new DurationSketch())
+                    .add(session.getDurationSeconds());
+        }
+    }
+
+    public void setOlderSessionsLoader(LocalDate loadedFrom, Supplier<List<Session>> loader) {
+        this.loadedFrom = loadedFrom;
+        this.olderSessionsLoader = loader;
+    }
+
+    /**
+     * True if every recorded session is in getSessions()
+     */
+    public boolean isHistoryLoaded() {
+        return olderSessionsLoader == null;
+    }
+
+    /**
+     * Read older sessions (if not done yet) and put them in front of the recent ones
+     */
+    public void loadFullHistory() {
+        if (olderSessionsLoader == null) {
+            return;
+        }
+        List<Session> older = olderSessionsLoader.get();
+        olderSessionsLoader = null;
+        loadedFrom = null;
+        sessions.addAll(0, older);
+        sessionsGeneration++;
+        modificationVersion++;
+    }
+
+    /**
+     * Make sure all sessions on or after the given date are in memory
+     */
+    public void ensureLoadedFrom(LocalDate date) {
+        if (olderSessionsLoader != null && date.isBefore(loadedFrom)) {
+            loadFullHistory();
+        }
+    }
+
     public void addCategory(Category category) {
-        if (!categories.contains(category)) {
+        if (!categoryIndex().containsKey(category.getName())) {
             categories.add(category);
+            categoryIndex.put(category.getName(), category);
         }
     }
 
     public void removeCategory(String categoryName) {
-        categories.removeIf(c -> c.getName().equals(categoryName));
+        if (categoryIndex().remove(categoryName) != null) {
+            categories.removeIf(c -> c.getName().equals(categoryName));
+        }
     }
 
     public Category getCategoryByName(String name) {
-        return categories.stream()
-                .filter(c -> c.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+        return categoryIndex().get(name);
+    }
+
+    private Map<String, Category> categoryIndex() {
+        if (categoryIndex == null) {
+            categoryIndex = new HashMap<>();
+            for (Category category : categories) {
+                categoryIndex.putIfAbsent(category.getName(), category);
+            }
+        }
+        return categoryIndex;
     }
 }
@@ -1,5 +1,8 @@
 package lablabu.model;
 
+import com.google.gson.annotations.JsonAdapter;
+
+@JsonAdapter(CategoryTypeAdapter.class)
 public class Category {
     private String name;
     private String color; // Hex color for visualization
@@ -0,0 +1,57 @@
+package lablabu.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON form of a Category: {"name", "color"}. Unknown fields are skipped.
+ */
+public class CategoryTypeAdapter extends TypeAdapter<Category> {
+
+    @Override
+    public void write(JsonWriter out, Category category) throws IOException {
+        if (category == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("name").value(category.getName());
+        out.name("color").value(category.getColor());
+        out.endObject();
+    }
+
+    @Override
+    public Category read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = null;
+        String color = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "name":
+                    name = in.nextString();
+                    break;
+                case "color":
+                    color = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Category(name, color);
+    }
+}
@@ -0,0 +1,120 @@
+package lablabu.model;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * Streaming quantiles of session lengths with a fixed relative error
+ * (log-bucketed histogram in the style of DDSketch).
+ *
+ * A length v >= 1 s goes to bucket i = ceil(log(v) / log(gamma)) with gamma = (1 + a) / (1 - a),
+ * and a bucket is reported as 2 * gamma^i / (gamma + 1), which is within a = 1% of every value
+ * in it. So quantile(q) is within 1% of the exact length at rank floor(q * (count - 1)) of the
+ * sorted lengths, for any input and any number of sessions. Lengths below 1 s are counted as 0.
+ *
+ * Memory is one long per bucket between the shortest and the longest session
+ * (1 s to 24 h is about 570 buckets). Sketches merge exactly by adding bucket counts.
+ */
+@JsonAdapter(DurationSketchTypeAdapter.class)
+public class DurationSketch {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private int minIndex = 0;            // bucket index of counts[0]
+    private long[] counts = new long[0];
+    private long zeroCount = 0;
+    private long count = 0;
+
+    public DurationSketch() {
+    }
+
+    // Restored from JSON by DurationSketchTypeAdapter
+    DurationSketch(int minIndex, long[] counts, long zeroCount, long count) {
+        this.minIndex = minIndex;
+        this.counts = counts;
+        this.zeroCount = zeroCount;
+        this.count = count;
+    }
+
+    public void add(long seconds) {
+        count++;
+        if (seconds < 1) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(seconds) / LOG_GAMMA);
+        ensureRange(index, index);
+        counts[index - minIndex]++;
+    }
+
+    /**
+     * Add another sketch's counts to this one
+     */
+    public void merge(DurationSketch other) {
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+        ensureRange(other.minIndex, other.minIndex + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[other.minIndex + i - minIndex] += other.counts[i];
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    int minIndex() {
+        return minIndex;
+    }
+
+    long[] counts() {
+        return counts;
+    }
+
+    long zeroCount() {
+        return zeroCount;
+    }
+
+    /**
+     * Session length (in seconds) at quantile q between 0 and 1, e.g. 0.5 for the median.
+     * Returns 0 for an empty sketch.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, minIndex + i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, minIndex + counts.length - 1) / (GAMMA + 1);
+    }
+
+    private void ensureRange(int low, int high) {
+        if (counts.length == 0) {
+            minIndex = low;
+            counts = new long[high - low + 1];
+            return;
+        }
+        int maxIndex = minIndex + counts.length - 1;
+        if (low >= minIndex && high <= maxIndex) {
+            return;
+        }
+        int newMin = Math.min(minIndex, low);
+        int newMax = Math.max(maxIndex, high);
+        long[] grown = new long[newMax - newMin + 1];
+        System.arraycopy(counts, 0, grown, minIndex - newMin, counts.length);
+        minIndex = newMin;
+        counts = grown;
+    }
+}
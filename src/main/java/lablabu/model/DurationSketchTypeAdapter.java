@@ -0,0 +1,87 @@
+package lablabu.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * JSON form of a DurationSketch: {"minIndex", "counts": [...], "zeroCount", "count"}.
+ * Unknown fields are skipped.
+ */
+public class DurationSketchTypeAdapter extends TypeAdapter<DurationSketch> {
+
+    @Override
+    public void write(JsonWriter out, DurationSketch sketch) throws IOException {
+        if (sketch == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("minIndex").value(sketch.minIndex());
+        out.name("counts").beginArray();
+        for (long count : sketch.counts()) {
+            out.value(count);
+        }
+        out.endArray();
+        out.name("zeroCount").value(sketch.zeroCount());
+        out.name("count").value(sketch.getCount());
+        out.endObject();
+    }
+
+    @Override
+    public DurationSketch read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int minIndex = 0;
+        long[] counts = new long[0];
+        long zeroCount = 0;
+        long count = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "minIndex":
+                    minIndex = in.nextInt();
+                    break;
+                case "counts":
+                    counts = readCounts(in);
+                    break;
+                case "zeroCount":
+                    zeroCount = in.nextLong();
+                    break;
+                case "count":
+                    count = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new DurationSketch(minIndex, counts, zeroCount, count);
+    }
+
+    private static long[] readCounts(JsonReader in) throws IOException {
+        long[] counts = new long[64];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (size == counts.length) {
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            counts[size++] = in.nextLong();
+        }
+        in.endArray();
+        return Arrays.copyOf(counts, size);
+    }
+}
@@ -1,46 +1,175 @@
 package lablabu.model;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One recorded session, immutable.
+ *
+ * Stored compactly: the day as an epoch day, start and end as local date-times in nanoseconds on
+ * the UTC timeline (no zone conversion, like BinarySessionStore) and the category as an id into
+ * a name table shared by all sessions. About 48 bytes per session instead of three date strings.
+ * The String getters format on demand and return exactly the text the session was created with;
+ * text that would not survive that round trip is kept as is.
+ */
+@JsonAdapter(SessionTypeAdapter.class)
+public final class Session {
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // Category names shared by all sessions; intern() is synchronized, reads go through the volatile array
+    private static final Map<String, Integer> categoryIds = new HashMap<>();
+    private static volatile String[] categoryNames = new String[0];
 
-public class Session {
-    private String category;
-    private long durationSeconds;
-    private String date; // Format YYYY-MM-DD
-    private String startTime; // ISO format
-    private String endTime; // ISO format
+    private final int categoryId;     // -1 for no category
+    private final int epochDay;       // NO_DAY for no date
+    private final long durationSeconds;
+    private final long startNanos;    // NO_TIME for no start time
+    private final long endNanos;
+    private final String[] text;      // {date, startTime, endTime} if any of them is not canonical, else null
 
-    // Constructor for new sessions
+    // Constructor for new sessions (ending now)
     public Session(String category, long durationSeconds, String date) {
-        this.category = category;
+        this(category, durationSeconds, date, Clock.systemDefaultZone());
+    }
+
+    public Session(String category, long durationSeconds, String date, Clock clock) {
+        this(category, durationSeconds, date, LocalDateTime.now(clock));
+    }
+
+    private Session(String category, long durationSeconds, String date, LocalDateTime end) {
+        this(category, durationSeconds, date,
+                end.minusSeconds(durationSeconds).format(TIME_FORMAT), end.format(TIME_FORMAT));
+    }
+
+    // Constructor for sessions with measured start and end; the date is the local day it started
+    public Session(String category, long durationSeconds, Instant start, Instant end, ZoneId zone) {
+        LocalDateTime localStart = LocalDateTime.ofInstant(start, zone);
+        this.categoryId = internCategory(category);
         this.durationSeconds = durationSeconds;
-        this.date = date;
-        this.endTime = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        this.startTime = LocalDateTime.now().minusSeconds(durationSeconds).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        this.epochDay = (int) localStart.toLocalDate().toEpochDay();
+        this.startNanos = toNanos(localStart);
+        this.endNanos = toNanos(LocalDateTime.ofInstant(end, zone));
+        this.text = startNanos == NO_TIME || endNanos == NO_TIME
+                ? new String[] {localStart.toLocalDate().toString(), localStart.format(TIME_FORMAT),
+                                LocalDateTime.ofInstant(end, zone).format(TIME_FORMAT)}
+                : null;
     }
 
     // Full constructor
     public Session(String category, long durationSeconds, String date, String startTime, String endTime) {
-        this.category = category;
+        int day = parseEpochDay(date);
+        long start = parseTime(startTime);
+        long end = parseTime(endTime);
+        boolean canonical = (date == null || day != NO_DAY && LocalDate.ofEpochDay(day).toString().equals(date))
+                && (startTime == null || start != NO_TIME && formatTime(start).equals(startTime))
+                && (endTime == null || end != NO_TIME && formatTime(end).equals(endTime));
+
+        this.categoryId = internCategory(category);
+        this.durationSeconds = durationSeconds;
+        this.epochDay = day;
+        this.startNanos = start;
+        this.endNanos = end;
+        this.text = canonical ? null : new String[] {date, startTime, endTime};
+    }
+
+    /**
+     * Constructor for sessions read back in the compact form (BinarySessionStore):
+     * epoch day or NO_DAY, local start and end in nanoseconds on the UTC timeline or NO_TIME
+     */
+    public Session(String category, long durationSeconds, int epochDay, long startNanos, long endNanos) {
+        this.categoryId = internCategory(category);
         this.durationSeconds = durationSeconds;
-        this.date = date;
-        this.startTime = startTime;
-        this.endTime = endTime;
+        this.epochDay = epochDay;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.text = null;
     }
 
     // Getters
-    public String getCategory() { return category; }
+    public String getCategory() { return categoryId >= 0 ? categoryNames[categoryId] : null; }
     public long getDurationSeconds() { return durationSeconds; }
-    public String getDate() { return date; }
-    public String getStartTime() { return startTime; }
-    public String getEndTime() { return endTime; }
 
-    // Setters
-    public void setCategory(String category) { this.category = category; }
-    public void setDurationSeconds(long durationSeconds) { this.durationSeconds = durationSeconds; }
-    public void setDate(String date) { this.date = date; }
-    public void setStartTime(String startTime) { this.startTime = startTime; }
-    public void setEndTime(String endTime) { this.endTime = endTime; }
+    public String getDate() {
+        if (text != null) {
+            return text[0];
+        }
+        return epochDay != NO_DAY ? LocalDate.ofEpochDay(epochDay).toString() : null;
+    }
+
+    public String getStartTime() { return text != null ? text[1] : formatTime(startNanos); }
+    public String getEndTime() { return text != null ? text[2] : formatTime(endNanos); }
+
+    /**
+     * Id of the category in the table shared by all sessions, -1 if none
+     */
+    public int getCategoryId() { return categoryId; }
+
+    /**
+     * Day of the session as an epoch day, NO_DAY if it has none (or it does not parse)
+     */
+    public int getEpochDay() { return epochDay; }
+
+    /**
+     * Local start time as nanoseconds on the UTC timeline, NO_TIME if unknown
+     */
+    public long getStartNanos() { return startNanos; }
+
+    public long getEndNanos() { return endNanos; }
+
+    /**
+     * True if the date and times are fully described by getEpochDay(), getStartNanos() and
+     * getEndNanos(); false if the session keeps text that does not parse or is not canonical
+     */
+    public boolean isCompact() { return text == null; }
+
+    /**
+     * Local start time as seconds on the UTC timeline, NO_TIME if unknown
+     */
+    public long getStartEpochSecond() {
+        return startNanos != NO_TIME ? Math.floorDiv(startNanos, NANOS_PER_SECOND) : NO_TIME;
+    }
+
+    public long getEndEpochSecond() {
+        return endNanos != NO_TIME ? Math.floorDiv(endNanos, NANOS_PER_SECOND) : NO_TIME;
+    }
+
+    /**
+     * Local hour of day the session started (0-23), -1 if unknown
+     */
+    public int getStartHour() {
+        long second = getStartEpochSecond();
+        return second != NO_TIME ? (int) Math.floorMod(Math.floorDiv(second, 3600L), 24L) : -1;
+    }
+
+    /**
+     * Category name for an id from getCategoryId()
+     */
+    public static String categoryName(int categoryId) {
+        return categoryNames[categoryId];
+    }
+
+    /**
+     * Id of a category name, -1 if no session has used it
+     */
+    public static synchronized int categoryIdOf(String name) {
+        Integer id = categoryIds.get(name);
+        return id != null ? id : -1;
+    }
 
     // Convenient method for formatting duration
     public String getFormattedDuration() {
@@ -48,4 +177,171 @@ public class Session {
         long minutes = (durationSeconds % 3600) / 60;
         return String.format("%dh %dm", hours, minutes);
     }
+
+    private static synchronized int internCategory(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = categoryIds.get(name);
+        if (id == null) {
+            String[] names = categoryNames;
+            id = names.length;
+            String[] grown = Arrays.copyOf(names, id + 1);
+            grown[id] = name;
+            categoryIds.put(name, id);
+            categoryNames = grown;
+        }
+        return id;
+    }
+
+    /**
+     * Epoch day of a yyyy-MM-dd string, NO_DAY if it is null or does not parse.
+     * The one date codec for the model and the stats indexes; the common form skips DateTimeFormatter.
+     */
+    public static int parseEpochDay(String date) {
+        if (date == null) {
+            return NO_DAY;
+        }
+        if (date.length() == 10) {
+            long day = fastEpochDay(date);
+            if (day != NO_DAY) {
+                return (int) day;
+            }
+        }
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeException e) {
+            return NO_DAY;
+        }
+    }
+
+    private static long parseTime(String time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        long nanos = fastParseTime(time);
+        if (nanos != NO_TIME) {
+            return nanos;
+        }
+        try {
+            return toNanos(LocalDateTime.parse(time, TIME_FORMAT));
+        } catch (DateTimeException e) {
+            return NO_TIME;
+        }
+    }
+
+    // yyyy-MM-ddTHH:mm:ss[.f...] without a DateTimeFormatter; NO_TIME for anything else
+    private static long fastParseTime(String time) {
+        int length = time.length();
+        if (length < 19 || length == 20 || length > 29 || time.charAt(10) != 'T'
+                || time.charAt(13) != ':' || time.charAt(16) != ':') {
+            return NO_TIME;
+        }
+        long day = fastEpochDay(time);
+        int hour = digits(time, 11, 13);
+        int minute = digits(time, 14, 16);
+        int second = digits(time, 17, 19);
+        if (day == NO_DAY || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_TIME;
+        }
+        int nano = 0;
+        if (length > 19) {
+            if (time.charAt(19) != '.') {
+                return NO_TIME;
+            }
+            nano = digits(time, 20, length);
+            if (nano < 0) {
+                return NO_TIME;
+            }
+            for (int i = length; i < 29; i++) {
+                nano *= 10;
+            }
+        }
+        long second0 = day * 86_400 + hour * 3600 + minute * 60 + second;
+        return toNanos(second0, nano);
+    }
+
+    // Epoch day of a yyyy-MM-dd prefix, NO_DAY if it is not one
+    private static long fastEpochDay(String text) {
+        if (text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return NO_DAY;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return NO_DAY;
+        }
+        return LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    // Value of the decimal digits in [from, to), -1 if any is not a digit
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Fits years 1678 to 2261; NO_TIME outside that
+    private static long toNanos(LocalDateTime time) {
+        return toNanos(time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+    }
+
+    private static long toNanos(long epochSecond, int nano) {
+        try {
+            return Math.addExact(Math.multiplyExact(epochSecond, NANOS_PER_SECOND), nano);
+        } catch (ArithmeticException e) {
+            return NO_TIME;
+        }
+    }
+
+    // Same text as TIME_FORMAT: seconds always, fraction without trailing zeros
+    private static String formatTime(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        long epochSecond = Math.floorDiv(nanos, NANOS_PER_SECOND);
+        int nano = (int) Math.floorMod(nanos, NANOS_PER_SECOND);
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86_400L));
+        if (date.getYear() < 1000) {
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC).format(TIME_FORMAT);
+        }
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+
+        char[] text = new char[29];
+        put(text, 0, date.getYear(), 4);
+        text[4] = '-';
+        put(text, 5, date.getMonthValue(), 2);
+        text[7] = '-';
+        put(text, 8, date.getDayOfMonth(), 2);
+        text[10] = 'T';
+        put(text, 11, secondOfDay / 3600, 2);
+        text[13] = ':';
+        put(text, 14, secondOfDay / 60 % 60, 2);
+        text[16] = ':';
+        put(text, 17, secondOfDay % 60, 2);
+        int length = 19;
+        if (nano > 0) {
+            text[19] = '.';
+            put(text, 20, nano, 9);
+            length = 29;
+            while (text[length - 1] == '0') {
+                length--;
+            }
+        }
+        return new String(text, 0, length);
+    }
+
+    private static void put(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
 }
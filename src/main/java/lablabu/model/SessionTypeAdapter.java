@@ -0,0 +1,73 @@
+package lablabu.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON form of a Session, the same as before sessions became compact:
+ * {"category", "durationSeconds", "date", "startTime", "endTime"}. Unknown fields are skipped.
+ */
+public class SessionTypeAdapter extends TypeAdapter<Session> {
+
+    @Override
+    public void write(JsonWriter out, Session session) throws IOException {
+        if (session == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("category").value(session.getCategory());
+        out.name("durationSeconds").value(session.getDurationSeconds());
+        out.name("date").value(session.getDate());
+        out.name("startTime").value(session.getStartTime());
+        out.name("endTime").value(session.getEndTime());
+        out.endObject();
+    }
+
+    @Override
+    public Session read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String category = null;
+        long durationSeconds = 0;
+        String date = null;
+        String startTime = null;
+        String endTime = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "category":
+                    category = in.nextString();
+                    break;
+                case "durationSeconds":
+                    durationSeconds = in.nextLong();
+                    break;
+                case "date":
+                    date = in.nextString();
+                    break;
+                case "startTime":
+                    startTime = in.nextString();
+                    break;
+                case "endTime":
+                    endTime = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Session(category, durationSeconds, date, startTime, endTime);
+    }
+}
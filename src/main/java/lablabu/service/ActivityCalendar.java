@@ -0,0 +1,109 @@
+package lablabu.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * One bit per epoch day with at least one session.
+ * Streaks are runs of set bits, found with BitSet's word-level scans: a century of history
+ * is about 4.5 KB and any streak query touches at most a few hundred words.
+ * Days before 1970 are ignored.
+ */
+public class ActivityCalendar {
+
+    /**
+     * A run of consecutive active days
+     */
+    public static final class Streak {
+        private final int firstDay;
+        private final int length;
+
+        private Streak(int firstDay, int length) {
+            this.firstDay = firstDay;
+            this.length = length;
+        }
+
+        public LocalDate getStart() { return LocalDate.ofEpochDay(firstDay); }
+        public LocalDate getEnd() { return LocalDate.ofEpochDay(firstDay + length - 1); }
+        public int getLength() { return length; }
+    }
+
+    private final BitSet days = new BitSet();
+
+    public void add(int epochDay) {
+        if (epochDay >= 0) {
+            days.set(epochDay);
+        }
+    }
+
+    public boolean isActive(int epochDay) {
+        return epochDay >= 0 && days.get(epochDay);
+    }
+
+    /**
+     * Earliest active day, -1 if none
+     */
+    public int firstActiveDay() {
+        return days.nextSetBit(0);
+    }
+
+    /**
+     * Latest active day, -1 if none
+     */
+    public int lastActiveDay() {
+        return days.length() - 1;
+    }
+
+    public int activeDays() {
+        return days.cardinality();
+    }
+
+    /**
+     * Length of the run of active days ending at the given day (0 if that day is inactive)
+     */
+    public int streakEndingAt(int epochDay) {
+        if (!isActive(epochDay)) {
+            return 0;
+        }
+        return epochDay - days.previousClearBit(epochDay);
+    }
+
+    /**
+     * Streak as of today: a run ending today, or yesterday while today has no session yet
+     */
+    public int currentStreak(int today) {
+        int streak = streakEndingAt(today);
+        return streak > 0 ? streak : streakEndingAt(today - 1);
+    }
+
+    public int longestStreak() {
+        int longest = 0;
+        for (int start = days.nextSetBit(0); start >= 0; ) {
+            int end = days.nextClearBit(start);
+            longest = Math.max(longest, end - start);
+            start = days.nextSetBit(end);
+        }
+        return longest;
+    }
+
+    /**
+     * Every run of at least minDays active days, oldest first
+     */
+    public List<Streak> streaks(int minDays) {
+        List<Streak> streaks = new ArrayList<>();
+        for (int start = days.nextSetBit(0); start >= 0; ) {
+            int end = days.nextClearBit(start);
+            if (end - start >= minDays) {
+                streaks.add(new Streak(start, end - start));
+            }
+            start = days.nextSetBit(end);
+        }
+        return streaks;
+    }
+
+    public void clear() {
+        days.clear();
+    }
+}
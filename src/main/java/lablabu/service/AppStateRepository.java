@@ -0,0 +1,65 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+
+/**
+ * The single application-wide AppState.
+ * Loaded once at startup and shared by all controllers; all writes go through one write-behind storage.
+ */
+public class AppStateRepository {
+    private final WriteBehindStorage storage;
+    private final AppState state;
+    private final long loadNanos;
+
+    public AppStateRepository(StorageService storageService) {
+        this.storage = new WriteBehindStorage(storageService);
+
+        long start = System.nanoTime();
+        this.state = storage.load();
+        this.loadNanos = System.nanoTime() - start;
+    }
+
+    public AppState getState() {
+        return state;
+    }
+
+    /**
+     * Persist a session that was just added to the state
+     */
+    public void appendSession(Session session) {
+        storage.appendSession(state, session);
+    }
+
+    /**
+     * Persist categories, theme and timer settings
+     */
+    public void saveSettings() {
+        storage.saveSettings(state);
+    }
+
+    /**
+     * How long the startup load took
+     */
+    public double getLoadMillis() {
+        return loadNanos / 1_000_000.0;
+    }
+
+    /**
+     * Problem found while loading or saving that the user should see, null if none
+     */
+    public String getStorageProblem() {
+        return storage.getProblem();
+    }
+
+    public WriteBehindStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Flush pending writes (call once on exit)
+     */
+    public void close() {
+        storage.close();
+    }
+}
@@ -0,0 +1,166 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary file of sessions, read through a memory-mapped buffer.
+ *
+ * Layout (big-endian):
+ *   header:     magic "LBSS", version, record count, category count
+ *   dictionary: category names (unsigned short length + UTF-8 bytes), id = position
+ *   records:    40 bytes each - start second, start nano, end second, end nano,
+ *               duration, epoch day, category id
+ *
+ * Times are local date-times stored as seconds on the UTC timeline (no zone conversion),
+ * taken from and given back to Session's compact fields without going through text,
+ * so every field converts back to exactly the same string as in data.json.
+ */
+public class BinarySessionStore {
+    private static final int MAGIC = 0x4C425353; // "LBSS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 40;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_CATEGORY = -1;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private BinarySessionStore() {
+    }
+
+    /**
+     * True if the session survives a binary round trip unchanged
+     */
+    public static boolean canEncode(Session session) {
+        String category = session.getCategory();
+        return session.isCompact()
+                && (category == null || category.length() <= 0xFFFF / 3
+                    || category.getBytes(StandardCharsets.UTF_8).length <= 0xFFFF);
+    }
+
+    /**
+     * Write sessions atomically. Callers must check canEncode first.
+     */
+    public static void write(Path file, List<Session> sessions) throws IOException {
+        Map<String, Integer> categoryIds = new HashMap<>();
+        List<String> categories = new ArrayList<>();
+        for (Session session : sessions) {
+            String category = session.getCategory();
+            if (category != null && !categoryIds.containsKey(category)) {
+                categoryIds.put(category, categories.size());
+                categories.add(category);
+            }
+        }
+
+        AtomicFiles.write(file, null, stream -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sessions.size());
+            out.writeInt(categories.size());
+
+            for (String category : categories) {
+                byte[] bytes = category.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+
+            for (Session session : sessions) {
+                writeTime(out, session.getStartNanos());
+                writeTime(out, session.getEndNanos());
+                out.writeLong(session.getDurationSeconds());
+                out.writeInt(session.getEpochDay() != Session.NO_DAY ? session.getEpochDay() : NO_DATE);
+                out.writeInt(session.getCategory() != null ? categoryIds.get(session.getCategory()) : NO_CATEGORY);
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Read all sessions from a memory-mapped file
+     */
+    public static List<Session> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a session store: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported session store version " + version);
+            }
+            int count = buffer.getInt();
+            int categoryCount = buffer.getInt();
+
+            String[] categories = new String[categoryCount];
+            for (int i = 0; i < categoryCount; i++) {
+                categories[i] = readUtf(buffer);
+            }
+
+            if (buffer.remaining() != (long) count * RECORD_SIZE) {
+                throw new IOException("Truncated session store: " + file);
+            }
+
+            List<Session> sessions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long startNanos = readTime(buffer, file);
+                long endNanos = readTime(buffer, file);
+                long duration = buffer.getLong();
+                int epochDay = buffer.getInt();
+                int categoryId = buffer.getInt();
+
+                String category = categoryId != NO_CATEGORY ? categories[categoryId] : null;
+                sessions.add(new Session(category, duration,
+                        epochDay != NO_DATE ? epochDay : Session.NO_DAY, startNanos, endNanos));
+            }
+            return sessions;
+        }
+    }
+
+    private static void writeTime(DataOutputStream out, long nanos) throws IOException {
+        if (nanos == Session.NO_TIME) {
+            out.writeLong(NO_TIME);
+            out.writeInt(0);
+            return;
+        }
+        out.writeLong(Math.floorDiv(nanos, NANOS_PER_SECOND));
+        out.writeInt((int) Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+
+    private static long readTime(ByteBuffer buffer, Path file) throws IOException {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        if (seconds == NO_TIME) {
+            return Session.NO_TIME;
+        }
+        try {
+            return Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), nanos);
+        } catch (ArithmeticException e) {
+            throw new IOException("Session time out of range in " + file, e);
+        }
+    }
+
+    private static String readUtf(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
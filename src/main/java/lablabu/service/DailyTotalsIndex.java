@@ -0,0 +1,158 @@
+package lablabu.service;
+
+/**
+ * Seconds per epoch day in a Fenwick (binary indexed) tree over a dense range of days.
+ * Adding seconds to any day, old or new, and any window total are O(log n);
+ * a single day is O(1) from the plain per-day array kept next to the tree.
+ * The range doubles when a day falls outside it, with the free space on the side that grew.
+ */
+public class DailyTotalsIndex {
+    private static final int INITIAL_DAYS = 64;
+
+    private int origin = 0;               // epoch day of slot 0
+    private long[] values = new long[0];  // seconds per day
+    private long[] tree = new long[1];    // Fenwick tree, 1-based
+    private long total = 0;
+
+    /**
+     * Add seconds to a day
+     */
+    public void add(int epochDay, long seconds) {
+        ensureRange(epochDay);
+        int slot = epochDay - origin;
+        values[slot] += seconds;
+        total += seconds;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += seconds;
+        }
+    }
+
+    /**
+     * Add seconds to consecutive days starting at firstDay, rebuilding the tree once (O(n))
+     */
+    public void addAll(int firstDay, long[] seconds) {
+        if (seconds.length == 0) {
+            return;
+        }
+        ensureRange(firstDay);
+        ensureRange(firstDay + seconds.length - 1);
+        int offset = firstDay - origin;
+        for (int i = 0; i < seconds.length; i++) {
+            values[offset + i] += seconds[i];
+            total += seconds[i];
+        }
+        rebuildTree();
+    }
+
+    /**
+     * Total for one day
+     */
+    public long dayTotal(int epochDay) {
+        long slot = (long) epochDay - origin;
+        return slot >= 0 && slot < values.length ? values[(int) slot] : 0;
+    }
+
+    /**
+     * Total for days from..to (inclusive)
+     */
+    public long rangeTotal(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        return totalUpTo(toDay) - totalUpTo((long) fromDay - 1);
+    }
+
+    /**
+     * Average seconds per day over the given number of days ending at endDay (inclusive)
+     */
+    public double rollingAverage(int endDay, int days) {
+        if (days <= 0) {
+            return 0;
+        }
+        return (double) rangeTotal(endDay - days + 1, endDay) / days;
+    }
+
+    /**
+     * Seconds for each day from..to (inclusive), e.g. the cells of a heatmap
+     */
+    public long[] dailyTotals(int fromDay, int toDay) {
+        long[] result = new long[Math.max(0, toDay - fromDay + 1)];
+        int from = Math.max(fromDay, origin);
+        int to = Math.min(toDay, origin + values.length - 1);
+        if (from <= to) {
+            System.arraycopy(values, from - origin, result, from - fromDay, to - from + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Total of all days
+     */
+    public long total() {
+        return total;
+    }
+
+    public void clear() {
+        values = new long[0];
+        tree = new long[1];
+        total = 0;
+    }
+
+    // Sum of all days <= day
+    private long totalUpTo(long day) {
+        long slot = day - origin;
+        if (slot < 0) {
+            return 0;
+        }
+        if (slot >= values.length) {
+            return total;
+        }
+        long sum = 0;
+        for (int i = (int) slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void ensureRange(int epochDay) {
+        if (values.length == 0) {
+            origin = epochDay;
+            values = new long[INITIAL_DAYS];
+            tree = new long[INITIAL_DAYS + 1];
+            return;
+        }
+        int last = origin + values.length - 1;
+        if (epochDay >= origin && epochDay <= last) {
+            return;
+        }
+
+        // Older day (e.g. imported session): free space goes in front; newer day: at the end
+        int first = Math.min(origin, epochDay);
+        int end = Math.max(last, epochDay);
+        int capacity = values.length;
+        while (capacity < end - first + 1) {
+            capacity *= 2;
+        }
+        int newOrigin = epochDay < origin ? end - capacity + 1 : origin;
+
+        long[] grown = new long[capacity];
+        System.arraycopy(values, 0, grown, origin - newOrigin, values.length);
+        origin = newOrigin;
+        values = grown;
+
+        rebuildTree();
+    }
+
+    // Linear-time tree construction
+    private void rebuildTree() {
+        int capacity = values.length;
+        tree = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package lablabu.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticks on a ScheduledExecutorService thread, for use without JavaFX (CLI, server).
+ * Pass a shared executor to run many timers on one thread.
+ */
+public class ExecutorTickScheduler implements TickScheduler {
+    private final ScheduledExecutorService executor;
+    private final long intervalMillis;
+    private ScheduledFuture<?> future;
+
+    public ExecutorTickScheduler(long intervalMillis) {
+        this(Executors.newSingleThreadScheduledExecutor(daemonThreads()), intervalMillis);
+    }
+
+    public ExecutorTickScheduler(ScheduledExecutorService executor, long intervalMillis) {
+        this.executor = executor;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public synchronized void start(Runnable tick) {
+        stop();
+        future = executor.scheduleAtFixedRate(tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        return r -> {
+            Thread thread = new Thread(r, "timer-ticks");
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package lablabu.service;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+/**
+ * Ticks on the JavaFX Application Thread using a Timeline
+ */
+public class FxTickScheduler implements TickScheduler {
+    private final double intervalMillis;
+    private Timeline timeline;
+
+    public FxTickScheduler(double intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void start(Runnable tick) {
+        stop();
+        timeline = new Timeline(new KeyFrame(Duration.millis(intervalMillis), e -> tick.run()));
+        timeline.setCycleCount(Timeline.INDEFINITE);
+        timeline.play();
+    }
+
+    @Override
+    public void stop() {
+        if (timeline != null) {
+            timeline.stop();
+            timeline = null;
+        }
+    }
+}
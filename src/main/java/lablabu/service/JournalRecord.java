@@ -0,0 +1,85 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Category;
+import lablabu.model.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of the append-only journal (data.journal).
+ * Either a new session or a settings change; null fields are not written.
+ */
+class JournalRecord {
+    static final String TYPE_SESSION = "session";
+    static final String TYPE_SETTINGS = "settings";
+
+    String type;
+    long seq; // Compared with AppState.journalSequence so records already in a snapshot are skipped
+
+    // Session record
+    Session session;
+    Integer streak;
+    String lastSessionDate;
+
+    // Settings record
+    List<Category> categories;
+    String theme;
+    String selectedCategory;
+    Integer pomodoroWorkMinutes;
+    Integer pomodoroBreakMinutes;
+
+    static JournalRecord session(AppState state, Session session) {
+        JournalRecord record = new JournalRecord();
+        record.type = TYPE_SESSION;
+        record.session = session;
+        record.streak = state.getStreak();
+        record.lastSessionDate = state.getLastSessionDate();
+        return record;
+    }
+
+    static JournalRecord settings(AppState state) {
+        JournalRecord record = new JournalRecord();
+        record.type = TYPE_SETTINGS;
+        record.categories = new ArrayList<>(state.getCategories());
+        record.theme = state.getTheme();
+        record.selectedCategory = state.getSelectedCategory();
+        record.pomodoroWorkMinutes = state.getPomodoroWorkMinutes();
+        record.pomodoroBreakMinutes = state.getPomodoroBreakMinutes();
+        return record;
+    }
+
+    /**
+     * Replay this record on top of the state
+     */
+    void applyTo(AppState state) {
+        if (TYPE_SESSION.equals(type)) {
+            if (session != null) {
+                state.addSession(session);
+            }
+            if (streak != null) {
+                state.setStreak(streak);
+            }
+            if (lastSessionDate != null) {
+                state.setLastSessionDate(lastSessionDate);
+            }
+        } else if (TYPE_SETTINGS.equals(type)) {
+            if (categories != null) {
+                state.setCategories(new ArrayList<>(categories));
+            }
+            if (theme != null) {
+                state.setTheme(theme);
+            }
+            if (selectedCategory != null) {
+                state.setSelectedCategory(selectedCategory);
+            }
+            if (pomodoroWorkMinutes != null) {
+                state.setPomodoroWorkMinutes(pomodoroWorkMinutes);
+            }
+            if (pomodoroBreakMinutes != null) {
+                state.setPomodoroBreakMinutes(pomodoroBreakMinutes);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package lablabu.service;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lablabu.model.Category;
+import lablabu.model.CategoryTypeAdapter;
+import lablabu.model.SessionTypeAdapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * One journal line without reflection. Null fields are not written; unknown fields are skipped.
+ */
+class JournalRecordTypeAdapter extends TypeAdapter<JournalRecord> {
+    private final SessionTypeAdapter sessionAdapter = new SessionTypeAdapter();
+    private final CategoryTypeAdapter categoryAdapter = new CategoryTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, JournalRecord record) throws IOException {
+        if (record == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("type").value(record.type);
+        out.name("seq").value(record.seq);
+        if (record.session != null) {
+            out.name("session");
+            sessionAdapter.write(out, record.session);
+        }
+        out.name("streak").value(record.streak);
+        out.name("lastSessionDate").value(record.lastSessionDate);
+        if (record.categories != null) {
+            out.name("categories").beginArray();
+            for (Category category : record.categories) {
+                categoryAdapter.write(out, category);
+            }
+            out.endArray();
+        }
+        out.name("theme").value(record.theme);
+        out.name("selectedCategory").value(record.selectedCategory);
+        out.name("pomodoroWorkMinutes").value(record.pomodoroWorkMinutes);
+        out.name("pomodoroBreakMinutes").value(record.pomodoroBreakMinutes);
+        out.endObject();
+    }
+
+    @Override
+    public JournalRecord read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return readRecord(in);
+        } catch (NumberFormatException e) {
+            // Reported like any other malformed line, so replay skips it
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private JournalRecord readRecord(JsonReader in) throws IOException {
+        JournalRecord record = new JournalRecord();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "type":
+                    record.type = in.nextString();
+                    break;
+                case "seq":
+                    record.seq = in.nextLong();
+                    break;
+                case "session":
+                    record.session = sessionAdapter.read(in);
+                    break;
+                case "streak":
+                    record.streak = in.nextInt();
+                    break;
+                case "lastSessionDate":
+                    record.lastSessionDate = in.nextString();
+                    break;
+                case "categories":
+                    record.categories = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        record.categories.add(categoryAdapter.read(in));
+                    }
+                    in.endArray();
+                    break;
+                case "theme":
+                    record.theme = in.nextString();
+                    break;
+                case "selectedCategory":
+                    record.selectedCategory = in.nextString();
+                    break;
+                case "pomodoroWorkMinutes":
+                    record.pomodoroWorkMinutes = in.nextInt();
+                    break;
+                case "pomodoroBreakMinutes":
+                    record.pomodoroBreakMinutes = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return record;
+    }
+}
@@ -0,0 +1,32 @@
+package lablabu.service;
+
+/**
+ * Ticks only when tick() is called, for simulations driven by a SimulatedClock
+ */
+public class ManualTickScheduler implements TickScheduler {
+    private Runnable tick;
+
+    @Override
+    public void start(Runnable tick) {
+        this.tick = tick;
+    }
+
+    @Override
+    public void stop() {
+        tick = null;
+    }
+
+    public boolean isStarted() {
+        return tick != null;
+    }
+
+    /**
+     * Deliver one tick if started
+     */
+    public void tick() {
+        Runnable current = tick;
+        if (current != null) {
+            current.run();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package lablabu.service;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Whether large stats scans are split across the common ForkJoinPool.
+ * Chosen with -Dlablabu.parallel=auto|always|never (default auto); the pool size follows
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism.
+ */
+public enum ParallelMode {
+    AUTO,    // Split from THRESHOLD items up, when there is more than one worker
+    ALWAYS,  // Split whenever there is more than one chunk
+    NEVER;   // Always sequential
+
+    /**
+     * Items (sessions or table rows) below which AUTO stays sequential: smaller scans
+     * finish in a few milliseconds, less than waking up the pool costs
+     */
+    public static final int THRESHOLD = 1 << 17;
+
+    /**
+     * Items handled by one task once split
+     */
+    public static final int CHUNK = 1 << 14;
+
+    public static ParallelMode fromSystemProperty() {
+        String value = System.getProperty("lablabu.parallel", "auto").trim().toLowerCase();
+        if (value.equals("always")) {
+            return ALWAYS;
+        } else if (value.equals("never")) {
+            return NEVER;
+        }
+        return AUTO;
+    }
+
+    public boolean shouldSplit(int items) {
+        switch (this) {
+            case ALWAYS:
+                return items > CHUNK;
+            case NEVER:
+                return false;
+            default:
+                return items >= THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Sessions split into one BinarySessionStore file per month, in the sessions/ directory.
+ *
+ * The partition map (month -> file name) is stored in data.json. Partition files are never
+ * modified: a changed month is written under a new name (month + journal sequence),
+ * so data.json and data.json.bak always point at complete files.
+ */
+class PartitionedSessionStore {
+    // Partition key for sessions without a date
+    static final String UNDATED = "undated";
+
+    private final Path directory;
+
+    PartitionedSessionStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Month of the session's epoch day as yyyy-MM. UNDATED if it has no date, the date does not parse,
+     * or the year does not fit four digits (YearMonth.parse could not read the key back).
+     */
+    static String partitionOf(Session session) {
+        int day = session.getEpochDay();
+        if (day == Session.NO_DAY) {
+            return UNDATED;
+        }
+        YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+        return month.getYear() >= 0 && month.getYear() <= 9999 ? month.toString() : UNDATED;
+    }
+
+    /**
+     * Write every month of the history. Returns the new partition map.
+     */
+    Map<String, String> writeAll(List<Session> sessions, long sequence) throws IOException {
+        Map<String, String> partitions = new TreeMap<>();
+        for (Map.Entry<String, List<Session>> month : groupByPartition(sessions).entrySet()) {
+            partitions.put(month.getKey(), writePartition(month.getKey(), month.getValue(), sequence));
+        }
+        return partitions;
+    }
+
+    /**
+     * Add new sessions to their months. Only the months that received sessions are rewritten.
+     */
+    Map<String, String> append(Map<String, String> partitions, List<Session> newSessions, long sequence) throws IOException {
+        Map<String, String> updated = new TreeMap<>(partitions);
+        for (Map.Entry<String, List<Session>> month : groupByPartition(newSessions).entrySet()) {
+            List<Session> sessions = new ArrayList<>();
+            String existing = partitions.get(month.getKey());
+            if (existing != null) {
+                sessions.addAll(BinarySessionStore.read(directory.resolve(existing)));
+            }
+            sessions.addAll(month.getValue());
+            updated.put(month.getKey(), writePartition(month.getKey(), sessions, sequence));
+        }
+        return updated;
+    }
+
+    /**
+     * Read months from (inclusive) the given month, plus undated sessions.
+     * A partition that cannot be read is skipped and its file name added to unreadable.
+     */
+    List<Session> readFrom(Map<String, String> partitions, YearMonth from, Set<String> unreadable) {
+        return read(partitions, from, true, unreadable);
+    }
+
+    /**
+     * Read months before the given month, skipping unreadable partitions like readFrom
+     */
+    List<Session> readBefore(Map<String, String> partitions, YearMonth before, Set<String> unreadable) {
+        return read(partitions, before, false, unreadable);
+    }
+
+    /**
+     * Remove partition files that are not in keep
+     */
+    void deleteExcept(Set<String> keep) {
+        File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!keep.contains(file.getName())) {
+                file.delete();
+            }
+        }
+    }
+
+    private List<Session> read(Map<String, String> partitions, YearMonth month, boolean from, Set<String> unreadable) {
+        List<Session> sessions = new ArrayList<>();
+        for (Map.Entry<String, String> partition : partitions.entrySet()) {
+            if (isFrom(partition.getKey(), month) != from) {
+                continue;
+            }
+            try {
+                sessions.addAll(BinarySessionStore.read(directory.resolve(partition.getValue())));
+            } catch (IOException e) {
+                e.printStackTrace();
+                unreadable.add(partition.getValue());
+            }
+        }
+        return sessions;
+    }
+
+    private boolean isFrom(String partition, YearMonth from) {
+        return partition.equals(UNDATED) || YearMonth.parse(partition).compareTo(from) >= 0;
+    }
+
+    private String writePartition(String month, List<Session> sessions, long sequence) throws IOException {
+        Files.createDirectories(directory);
+        String name = month + "-" + sequence + ".bin";
+        BinarySessionStore.write(directory.resolve(name), sessions);
+        return name;
+    }
+
+    private static Map<String, List<Session>> groupByPartition(List<Session> sessions) {
+        Map<String, List<Session>> months = new LinkedHashMap<>();
+        for (Session session : sessions) {
+            months.computeIfAbsent(partitionOf(session), k -> new ArrayList<>()).add(session);
+        }
+        return months;
+    }
+}
@@ -0,0 +1,6 @@
+package lablabu.service;
+
+public enum PomodoroPhase {
+    WORK,       // Work phase
+    BREAK       // Break phase
+}
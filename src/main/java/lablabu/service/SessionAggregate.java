@@ -0,0 +1,182 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Totals of a run of sessions that merge exactly with the totals of another run:
+ * seconds and sessions per day, seconds per category and seconds and sessions per category per day.
+ * compute() splits a long run into chunks on the ForkJoinPool and merges the partial results.
+ *
+ * Categories are indexed by Session.getCategoryId() + 1 (slot 0 is "no category"),
+ * days densely from firstDay.
+ */
+class SessionAggregate {
+    int firstDay = 0;
+    int days = 0;                     // 0 when there is no dated session
+    long[] daySeconds = new long[0];
+    long[] dayCounts = new long[0];
+    long undatedSeconds = 0;
+
+    long[] categorySeconds = new long[0];
+    long[][] categoryDaySeconds = new long[0][];  // null for categories without dated sessions
+    long[][] categoryDayCounts = new long[0][];
+
+    /**
+     * Totals of sessions[from, to), split across the common pool if the mode says so
+     */
+    static SessionAggregate compute(List<Session> sessions, int from, int to, ParallelMode mode) {
+        if (mode.shouldSplit(to - from)) {
+            return ForkJoinPool.commonPool().invoke(new Task(sessions, from, to));
+        }
+        return leaf(sessions, from, to);
+    }
+
+    @SuppressWarnings("serial")  // never serialized, only forked
+    private static final class Task extends RecursiveTask<SessionAggregate> {
+        private final List<Session> sessions;
+        private final int from;
+        private final int to;
+
+        Task(List<Session> sessions, int from, int to) {
+            this.sessions = sessions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SessionAggregate compute() {
+            if (to - from <= ParallelMode.CHUNK) {
+                return leaf(sessions, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Task left = new Task(sessions, from, mid);
+            left.fork();
+            SessionAggregate right = new Task(sessions, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static SessionAggregate leaf(List<Session> sessions, int from, int to) {
+        // First pass sizes the arrays, so the second one only adds
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        int slots = 1;
+        for (int i = from; i < to; i++) {
+            Session session = sessions.get(i);
+            int day = session.getEpochDay();
+            if (day != Session.NO_DAY) {
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+            slots = Math.max(slots, session.getCategoryId() + 2);
+        }
+
+        SessionAggregate aggregate = new SessionAggregate();
+        aggregate.ensureSlots(slots);
+        if (minDay <= maxDay) {
+            aggregate.firstDay = minDay;
+            aggregate.days = maxDay - minDay + 1;
+            aggregate.daySeconds = new long[aggregate.days];
+            aggregate.dayCounts = new long[aggregate.days];
+        }
+
+        for (int i = from; i < to; i++) {
+            Session session = sessions.get(i);
+            int slot = session.getCategoryId() + 1;
+            long seconds = session.getDurationSeconds();
+            aggregate.categorySeconds[slot] += seconds;
+
+            int day = session.getEpochDay();
+            if (day == Session.NO_DAY) {
+                aggregate.undatedSeconds += seconds;
+                continue;
+            }
+            int index = day - aggregate.firstDay;
+            aggregate.daySeconds[index] += seconds;
+            aggregate.dayCounts[index]++;
+            if (aggregate.categoryDaySeconds[slot] == null) {
+                aggregate.categoryDaySeconds[slot] = new long[aggregate.days];
+                aggregate.categoryDayCounts[slot] = new long[aggregate.days];
+            }
+            aggregate.categoryDaySeconds[slot][index] += seconds;
+            aggregate.categoryDayCounts[slot][index]++;
+        }
+        return aggregate;
+    }
+
+    /**
+     * Add another aggregate's totals to this one; returns this
+     */
+    SessionAggregate merge(SessionAggregate other) {
+        undatedSeconds += other.undatedSeconds;
+        ensureSlots(other.categorySeconds.length);
+        if (other.days > 0) {
+            int first = days > 0 ? Math.min(firstDay, other.firstDay) : other.firstDay;
+            int last = days > 0 ? Math.max(firstDay + days - 1, other.firstDay + other.days - 1) : other.firstDay + other.days - 1;
+            widen(first, last);
+        }
+        int offset = other.firstDay - firstDay;
+
+        if (other.days > 0) {
+            addAt(daySeconds, other.daySeconds, offset);
+            addAt(dayCounts, other.dayCounts, offset);
+        }
+        for (int slot = 0; slot < other.categorySeconds.length; slot++) {
+            categorySeconds[slot] += other.categorySeconds[slot];
+            if (other.categoryDaySeconds[slot] != null) {
+                if (categoryDaySeconds[slot] == null) {
+                    categoryDaySeconds[slot] = new long[days];
+                    categoryDayCounts[slot] = new long[days];
+                }
+                addAt(categoryDaySeconds[slot], other.categoryDaySeconds[slot], offset);
+                addAt(categoryDayCounts[slot], other.categoryDayCounts[slot], offset);
+            }
+        }
+        return this;
+    }
+
+    private void ensureSlots(int slots) {
+        if (slots <= categorySeconds.length) {
+            return;
+        }
+        categorySeconds = Arrays.copyOf(categorySeconds, slots);
+        categoryDaySeconds = Arrays.copyOf(categoryDaySeconds, slots);
+        categoryDayCounts = Arrays.copyOf(categoryDayCounts, slots);
+    }
+
+    // Make the day arrays cover first..last, keeping their contents
+    private void widen(int first, int last) {
+        if (days > 0 && first == firstDay && last == firstDay + days - 1) {
+            return;
+        }
+        int newDays = last - first + 1;
+        int shift = days > 0 ? firstDay - first : 0;
+        daySeconds = moved(daySeconds, newDays, shift);
+        dayCounts = moved(dayCounts, newDays, shift);
+        for (int slot = 0; slot < categoryDaySeconds.length; slot++) {
+            if (categoryDaySeconds[slot] != null) {
+                categoryDaySeconds[slot] = moved(categoryDaySeconds[slot], newDays, shift);
+                categoryDayCounts[slot] = moved(categoryDayCounts[slot], newDays, shift);
+            }
+        }
+        firstDay = first;
+        days = newDays;
+    }
+
+    private static long[] moved(long[] values, int length, int shift) {
+        long[] result = new long[length];
+        System.arraycopy(values, 0, result, shift, values.length);
+        return result;
+    }
+
+    private static void addAt(long[] target, long[] values, int offset) {
+        for (int i = 0; i < values.length; i++) {
+            target[offset + i] += values[i];
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package lablabu.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+/**
+ * Periodic snapshot of the running timer so a session survives a crash or a kill.
+ *
+ * The file has two fixed 512-byte slots written alternately, each with a CRC, so a torn write
+ * never destroys the previous checkpoint. A write fills one preallocated direct buffer and does
+ * a single positional write without fsync: a few microseconds, cheap enough for every few seconds.
+ * The data survives the process dying; only an OS crash can lose the last few writes.
+ */
+public class SessionCheckpoint implements Closeable {
+    private static final int MAGIC = 0x4C42434B; // "LBCK"
+    private static final byte VERSION = 2;
+    private static final int SLOT_SIZE = 512;
+    private static final int HEADER_SIZE = 42;
+    private static final int CRC_OFFSET = SLOT_SIZE - 4;
+    private static final int MAX_CATEGORY_BYTES = CRC_OFFSET - HEADER_SIZE;
+
+    /**
+     * A session that was still in progress when the last checkpoint was written
+     */
+    public static final class Interrupted {
+        private final TimerMode mode;
+        private final PomodoroPhase phase;
+        private final String category;
+        private final long elapsedNanos;
+        private final long savedAtMillis;
+        private final long startedAtMillis;
+        private final ZoneId zone;
+
+        private Interrupted(TimerMode mode, PomodoroPhase phase, String category,
+                            long elapsedNanos, long savedAtMillis, long startedAtMillis, ZoneId zone) {
+            this.mode = mode;
+            this.phase = phase;
+            this.category = category;
+            this.elapsedNanos = elapsedNanos;
+            this.savedAtMillis = savedAtMillis;
+            this.startedAtMillis = startedAtMillis;
+            this.zone = zone;
+        }
+
+        public TimerMode getMode() { return mode; }
+        public PomodoroPhase getPhase() { return phase; }
+        public String getCategory() { return category; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public int getSeconds() { return (int) (elapsedNanos / 1_000_000_000L); }
+        public long getSavedAtMillis() { return savedAtMillis; }
+        public long getStartedAtMillis() { return startedAtMillis; }
+
+        /**
+         * Local day the session started, as yyyy-MM-dd
+         */
+        public String getDate() {
+            return Instant.ofEpochMilli(startedAtMillis).atZone(zone).toLocalDate().toString();
+        }
+    }
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SLOT_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final Clock clock;
+    private FileChannel channel;
+    private long counter = 0;
+    private Interrupted interrupted;
+
+    // Last category encoded, so steady-state writes do not allocate
+    private String lastCategory;
+    private byte[] lastCategoryBytes;
+
+    private long lastWriteNanos = 0;
+    private long maxWriteNanos = 0;
+
+    public SessionCheckpoint(Path file) {
+        this(file, Clock.systemUTC());
+    }
+
+    public SessionCheckpoint(Path file, Clock clock) {
+        this.clock = clock;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            readSlot(0);
+            readSlot(1);
+            if (channel.size() < 2L * SLOT_SIZE) {
+                // Preallocate both slots so later writes never extend the file
+                channel.write(ByteBuffer.allocate(1), 2L * SLOT_SIZE - 1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    /**
+     * The session found at startup, or null if the last checkpoint was cleared (or none exists)
+     */
+    public synchronized Interrupted getInterrupted() {
+        return interrupted;
+    }
+
+    /**
+     * Record the current timer. Categories longer than the slot allows are not checkpointed.
+     */
+    public synchronized void write(TimerMode mode, PomodoroPhase phase, String category,
+                                   long elapsedNanos, long startedAtMillis) {
+        byte[] categoryBytes = encode(category);
+        if (channel == null || categoryBytes.length > MAX_CATEGORY_BYTES) {
+            return;
+        }
+        long start = System.nanoTime();
+        buffer.clear();
+        putHeader(true, mode, phase, elapsedNanos, startedAtMillis);
+        buffer.putShort((short) categoryBytes.length).put(categoryBytes);
+        writeSlot();
+        lastWriteNanos = System.nanoTime() - start;
+        maxWriteNanos = Math.max(maxWriteNanos, lastWriteNanos);
+    }
+
+    /**
+     * Mark that no session is in progress (it was saved, discarded or is too short to keep)
+     */
+    public synchronized void clear() {
+        interrupted = null;
+        if (channel == null) {
+            return;
+        }
+        buffer.clear();
+        putHeader(false, TimerMode.FREE, PomodoroPhase.WORK, 0, 0);
+        buffer.putShort((short) 0);
+        writeSlot();
+    }
+
+    public synchronized long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    public synchronized long getMaxWriteNanos() {
+        return maxWriteNanos;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            channel = null;
+        }
+    }
+
+    private byte[] encode(String category) {
+        if (!category.equals(lastCategory)) {
+            lastCategory = category;
+            lastCategoryBytes = category.getBytes(StandardCharsets.UTF_8);
+        }
+        return lastCategoryBytes;
+    }
+
+    private void putHeader(boolean active, TimerMode mode, PomodoroPhase phase, long elapsedNanos, long startedAtMillis) {
+        counter++;
+        buffer.putInt(MAGIC)
+              .put(VERSION)
+              .put((byte) (active ? 1 : 0))
+              .put((byte) mode.ordinal())
+              .put((byte) phase.ordinal())
+              .putLong(counter)
+              .putLong(elapsedNanos)
+              .putLong(clock.millis())
+              .putLong(startedAtMillis);
+    }
+
+    // CRC covers the used part of the slot; the write always covers the whole slot
+    private void writeSlot() {
+        buffer.flip();
+        crc.reset();
+        crc.update(buffer);
+        buffer.limit(SLOT_SIZE);
+        buffer.putInt(CRC_OFFSET, (int) crc.getValue());
+        buffer.position(0);
+        try {
+            long offset = (counter & 1) * SLOT_SIZE;
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        } catch (IOException e) {
+            // Checkpoints are best effort; stop trying rather than fail every few seconds
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    // Keeps the newest valid slot: its counter continues, and it is the interrupted session if active
+    private void readSlot(int slot) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(SLOT_SIZE);
+        long offset = (long) slot * SLOT_SIZE;
+        while (in.hasRemaining() && channel.read(in, offset + in.position()) > 0) {
+            // keep reading until the slot is full or the file ends
+        }
+        if (in.position() < SLOT_SIZE || in.getInt(0) != MAGIC || in.get(4) != VERSION) {
+            return;
+        }
+        int categoryLength = in.getShort(HEADER_SIZE - 2) & 0xFFFF;
+        if (categoryLength > MAX_CATEGORY_BYTES) {
+            return;
+        }
+        crc.reset();
+        crc.update(in.array(), 0, HEADER_SIZE + categoryLength);
+        long slotCounter = in.getLong(8);
+        if ((int) crc.getValue() != in.getInt(CRC_OFFSET) || slotCounter <= counter) {
+            return;
+        }
+
+        counter = slotCounter;
+        int modeIndex = in.get(6);
+        int phaseIndex = in.get(7);
+        if (in.get(5) == 0 || modeIndex >= TimerMode.values().length || phaseIndex >= PomodoroPhase.values().length) {
+            interrupted = null;
+            return;
+        }
+        interrupted = new Interrupted(
+                TimerMode.values()[modeIndex],
+                PomodoroPhase.values()[phaseIndex],
+                new String(in.array(), HEADER_SIZE, categoryLength, StandardCharsets.UTF_8),
+                in.getLong(16),
+                in.getLong(24),
+                in.getLong(32),
+                clock.getZone());
+    }
+}
@@ -0,0 +1,231 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Dated sessions as parallel primitive arrays (start, duration, epoch day, category id),
+ * ordered by day and then start time, so a date range is one contiguous slice found by binary
+ * search and scans are tight loops over a few arrays instead of walking Session objects.
+ * About 20 bytes per session.
+ *
+ * Sessions may be added in any order; the table sorts itself before the next scan
+ * (appends in time order, the usual case, never need it).
+ */
+public class SessionTable {
+    private long[] start = new long[64];          // Session.getStartEpochSecond(), NO_TIME if unknown
+    private int[] durationSeconds = new int[64];  // saturated at Integer.MAX_VALUE
+    private int[] epochDay = new int[64];
+    private int[] categoryId = new int[64];       // Session.getCategoryId(), -1 for none
+    private int size = 0;
+    private boolean sorted = true;
+    private ParallelMode parallelMode = ParallelMode.fromSystemProperty();
+
+    /**
+     * Add a session; sessions without a date are ignored
+     */
+    public void add(Session session) {
+        int day = session.getEpochDay();
+        if (day == Session.NO_DAY) {
+            return;
+        }
+        if (size == start.length) {
+            int capacity = size * 2;
+            start = Arrays.copyOf(start, capacity);
+            durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            categoryId = Arrays.copyOf(categoryId, capacity);
+        }
+        long startSecond = session.getStartEpochSecond();
+        if (size > 0 && compare(day, startSecond, size - 1) < 0) {
+            sorted = false;
+        }
+        start[size] = startSecond;
+        durationSeconds[size] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, session.getDurationSeconds()));
+        epochDay[size] = day;
+        categoryId[size] = session.getCategoryId();
+        size++;
+    }
+
+    public void setParallelMode(ParallelMode parallelMode) {
+        this.parallelMode = parallelMode;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        sorted = true;
+    }
+
+    /**
+     * Seconds and session counts per local start hour (0-23) for sessions between two epoch days
+     * (inclusive), added to the given arrays. categories is indexed by category id; null means all.
+     * Sessions without a start time are skipped.
+     */
+    public void sumByHour(int fromDay, int toDay, boolean[] categories, long[] seconds, long[] counts) {
+        int from = firstIndexOf(fromDay);
+        int to = firstIndexOf(toDay + 1);
+        if (!parallelMode.shouldSplit(to - from)) {
+            sumRowsByHour(from, to, categories, seconds, counts);
+            return;
+        }
+        long[] totals = ForkJoinPool.commonPool().invoke(new HourTask(from, to, categories));
+        for (int hour = 0; hour < 24; hour++) {
+            seconds[hour] += totals[hour];
+            counts[hour] += totals[24 + hour];
+        }
+    }
+
+    // Seconds per hour in [0, 24), counts in [24, 48)
+    @SuppressWarnings("serial")  // never serialized, only forked
+    private final class HourTask extends RecursiveTask<long[]> {
+        private final int from;
+        private final int to;
+        private final boolean[] categories;
+
+        HourTask(int from, int to, boolean[] categories) {
+            this.from = from;
+            this.to = to;
+            this.categories = categories;
+        }
+
+        @Override
+        protected long[] compute() {
+            long[] totals = new long[48];
+            if (to - from <= ParallelMode.CHUNK) {
+                long[] seconds = new long[24];
+                long[] counts = new long[24];
+                sumRowsByHour(from, to, categories, seconds, counts);
+                System.arraycopy(seconds, 0, totals, 0, 24);
+                System.arraycopy(counts, 0, totals, 24, 24);
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            HourTask left = new HourTask(from, mid, categories);
+            left.fork();
+            long[] right = new HourTask(mid, to, categories).compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < 48; i++) {
+                totals[i] = leftTotals[i] + right[i];
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Same as sumByHour over rows [from, to) of the sorted table
+     */
+    void sumRowsByHour(int from, int to, boolean[] categories, long[] seconds, long[] counts) {
+        for (int i = from; i < to; i++) {
+            long startSecond = start[i];
+            int category = categoryId[i];
+            if (startSecond == Session.NO_TIME
+                    || categories != null && (category < 0 || category >= categories.length || !categories[category])) {
+                continue;
+            }
+            int hour = (int) Math.floorMod(Math.floorDiv(startSecond, 3600L), 24L);
+            seconds[hour] += durationSeconds[i];
+            counts[hour]++;
+        }
+    }
+
+    /**
+     * Index of the first row on or after the given epoch day (size if none)
+     */
+    int firstIndexOf(int day) {
+        ensureSorted();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDay[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void ensureSorted() {
+        if (sorted) {
+            return;
+        }
+        // Rare (imports, older months loaded in front): counting sort by day, then by start within
+        // each day, giving a permutation that is applied to all columns
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minDay = Math.min(minDay, epochDay[i]);
+            maxDay = Math.max(maxDay, epochDay[i]);
+        }
+        int[] dayStart = new int[maxDay - minDay + 2];
+        for (int i = 0; i < size; i++) {
+            dayStart[epochDay[i] - minDay + 1]++;
+        }
+        for (int d = 1; d < dayStart.length; d++) {
+            dayStart[d] += dayStart[d - 1];
+        }
+        int[] order = new int[size];
+        int[] next = Arrays.copyOf(dayStart, dayStart.length - 1);
+        for (int i = 0; i < size; i++) {
+            order[next[epochDay[i] - minDay]++] = i;
+        }
+        for (int d = 0; d < dayStart.length - 1; d++) {
+            sortByStart(order, dayStart[d], dayStart[d + 1]);
+        }
+
+        long[] newStart = new long[start.length];
+        int[] newDuration = new int[start.length];
+        int[] newDay = new int[start.length];
+        int[] newCategory = new int[start.length];
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            newStart[i] = start[row];
+            newDuration[i] = durationSeconds[row];
+            newDay[i] = epochDay[row];
+            newCategory[i] = categoryId[row];
+        }
+        start = newStart;
+        durationSeconds = newDuration;
+        epochDay = newDay;
+        categoryId = newCategory;
+        sorted = true;
+    }
+
+    // Rows of one day: usually a handful, so insertion sort (stable, like the day pass)
+    private void sortByStart(int[] order, int from, int to) {
+        if (to - from > 64) {
+            Integer[] rows = new Integer[to - from];
+            for (int i = from; i < to; i++) {
+                rows[i - from] = order[i];
+            }
+            Arrays.sort(rows, (a, b) -> Long.compare(start[a], start[b]));
+            for (int i = from; i < to; i++) {
+                order[i] = rows[i - from];
+            }
+            return;
+        }
+        for (int i = from + 1; i < to; i++) {
+            int row = order[i];
+            int j = i - 1;
+            while (j >= from && start[order[j]] > start[row]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = row;
+        }
+    }
+
+    // Order of (day, startSecond) relative to row; unknown start times sort first within their day
+    private int compare(int day, long startSecond, int row) {
+        int byDay = Integer.compare(day, epochDay[row]);
+        return byDay != 0 ? byDay : Long.compare(startSecond, start[row]);
+    }
+}
@@ -0,0 +1,72 @@
+package lablabu.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock for simulations and tests: time only moves when advance() is called.
+ * nanoTime() is the matching monotonic clock for TimerEngine. sleep() moves only the wall clock,
+ * the way Linux and macOS behave while the computer is suspended.
+ */
+public class SimulatedClock extends Clock {
+    private final AtomicLong wallNanos;
+    private final AtomicLong monoNanos;
+    private final ZoneId zone;
+
+    public SimulatedClock(Instant start, ZoneId zone) {
+        this(new AtomicLong(start.getEpochSecond() * 1_000_000_000L + start.getNano()), new AtomicLong(0), zone);
+    }
+
+    private SimulatedClock(AtomicLong wallNanos, AtomicLong monoNanos, ZoneId zone) {
+        this.wallNanos = wallNanos;
+        this.monoNanos = monoNanos;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        advanceNanos(duration.toNanos());
+    }
+
+    public void advanceNanos(long nanos) {
+        wallNanos.addAndGet(nanos);
+        monoNanos.addAndGet(nanos);
+    }
+
+    /**
+     * System suspend: wall time passes, the monotonic clock stands still
+     */
+    public void sleep(Duration duration) {
+        wallNanos.addAndGet(duration.toNanos());
+    }
+
+    public long nanoTime() {
+        return monoNanos.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * The returned clock shares this clock's time
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new SimulatedClock(wallNanos, monoNanos, zone);
+    }
+
+    @Override
+    public long millis() {
+        return Math.floorDiv(wallNanos.get(), 1_000_000L);
+    }
+
+    @Override
+    public Instant instant() {
+        long nanos = wallNanos.get();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+}
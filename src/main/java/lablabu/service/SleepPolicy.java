@@ -0,0 +1,21 @@
+package lablabu.service;
+
+/**
+ * What a running timer does with time the computer spent asleep.
+ * Chosen with -Dlablabu.sleepPolicy=pause|discard|keep (default pause).
+ */
+public enum SleepPolicy {
+    PAUSE,        // Drop the gap and pause the timer
+    DISCARD_GAP,  // Drop the gap, keep running
+    KEEP;         // Count the gap as focus time
+
+    public static SleepPolicy fromSystemProperty() {
+        String value = System.getProperty("lablabu.sleepPolicy", "pause").trim().toLowerCase();
+        if (value.equals("keep")) {
+            return KEEP;
+        } else if (value.equals("discard")) {
+            return DISCARD_GAP;
+        }
+        return PAUSE;
+    }
+}
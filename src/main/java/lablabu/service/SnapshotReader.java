@@ -0,0 +1,177 @@
+package lablabu.service;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import lablabu.model.AppState;
+import lablabu.model.Category;
+import lablabu.model.DurationSketch;
+import lablabu.model.Session;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single-pass streaming reader for data.json.
+ * Builds AppState directly from JsonReader tokens, without an intermediate JsonObject tree.
+ * The schema is detected from the categories array: plain strings mean the old format.
+ */
+class SnapshotReader {
+    // Month -> partition file, present when sessions are not stored inline
+    static final String SESSION_PARTITIONS = "sessionPartitions";
+    static final String DURATION_SKETCHES = "durationSketches";
+
+    private static final String[] DEFAULT_COLORS = {"#79f5b0", "#65f7a1", "#9feacb", "#ffb86b", "#ff8c42", "#a29bfe"};
+
+    private final TypeAdapter<Category> categoryAdapter;
+    private final TypeAdapter<Session> sessionAdapter;
+    private final TypeAdapter<Map<String, DurationSketch>> sketchesAdapter;
+
+    private boolean oldFormat;
+    private Map<String, String> partitions;
+
+    SnapshotReader(Gson gson) {
+        this.categoryAdapter = gson.getAdapter(Category.class);
+        this.sessionAdapter = gson.getAdapter(Session.class);
+        this.sketchesAdapter = gson.getAdapter(new TypeToken<Map<String, DurationSketch>>() { });
+    }
+
+    /**
+     * True if the last read file used the old format (categories as plain strings)
+     */
+    boolean wasOldFormat() {
+        return oldFormat;
+    }
+
+    /**
+     * Partition map of the last read file, or null if sessions were inline.
+     * Partition files are not read here.
+     */
+    Map<String, String> getPartitions() {
+        return partitions;
+    }
+
+    AppState read(JsonReader reader) throws IOException {
+        oldFormat = false;
+        partitions = null;
+        AppState state = new AppState();
+        Map<String, DurationSketch> sketches = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+
+            switch (name) {
+                case "categories":
+                    state.setCategories(readCategories(reader));
+                    break;
+                case "sessions":
+                    state.setSessions(readSessions(reader));
+                    break;
+                case "streak":
+                    state.setStreak(reader.nextInt());
+                    break;
+                case "lastSessionDate":
+                    state.setLastSessionDate(reader.nextString());
+                    break;
+                case "theme":
+                    state.setTheme(reader.nextString());
+                    break;
+                case "selectedCategory":
+                    state.setSelectedCategory(reader.nextString());
+                    break;
+                case "pomodoroWorkMinutes":
+                    state.setPomodoroWorkMinutes(reader.nextInt());
+                    break;
+                case "pomodoroBreakMinutes":
+                    state.setPomodoroBreakMinutes(reader.nextInt());
+                    break;
+                case "journalSequence":
+                    state.setJournalSequence(reader.nextLong());
+                    break;
+                case SESSION_PARTITIONS:
+                    partitions = readPartitions(reader);
+                    break;
+                case DURATION_SKETCHES:
+                    sketches = sketchesAdapter.read(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        AppState result = oldFormat ? migrateOldFormat(state) : state;
+        // Missing in older files: StorageService rebuilds them from the sessions
+        result.setDurationSketches(sketches);
+        return result;
+    }
+
+    private List<Category> readCategories(JsonReader reader) throws IOException {
+        List<Category> categories = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.STRING) {
+                // Old format: category names only, colors are assigned by position
+                oldFormat = true;
+                String color = DEFAULT_COLORS[categories.size() % DEFAULT_COLORS.length];
+                categories.add(new Category(reader.nextString(), color));
+            } else {
+                categories.add(categoryAdapter.read(reader));
+            }
+        }
+        reader.endArray();
+        return categories;
+    }
+
+    private Map<String, String> readPartitions(JsonReader reader) throws IOException {
+        Map<String, String> result = new TreeMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            result.put(reader.nextName(), reader.nextString());
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private List<Session> readSessions(JsonReader reader) throws IOException {
+        List<Session> sessions = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Session session = sessionAdapter.read(reader);
+            if (session != null) {
+                sessions.add(session);
+            }
+        }
+        reader.endArray();
+        return sessions;
+    }
+
+    /**
+     * Old files only carried categories, sessions, streak and last session date
+     */
+    private AppState migrateOldFormat(AppState oldData) {
+        AppState newState = new AppState();
+        newState.setCategories(oldData.getCategories());
+
+        List<Session> sessions = new ArrayList<>(oldData.getSessions().size());
+        for (Session old : oldData.getSessions()) {
+            sessions.add(new Session(old.getCategory(), old.getDurationSeconds(), old.getDate()));
+        }
+        newState.setSessions(sessions);
+
+        newState.setStreak(oldData.getStreak());
+        newState.setLastSessionDate(oldData.getLastSessionDate());
+        newState.setTheme("dark");
+        return newState;
+    }
+}
@@ -0,0 +1,73 @@
+package lablabu.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import lablabu.model.AppState;
+import lablabu.model.Category;
+import lablabu.model.CategoryTypeAdapter;
+import lablabu.model.DurationSketch;
+import lablabu.model.DurationSketchTypeAdapter;
+import lablabu.model.Session;
+import lablabu.model.SessionTypeAdapter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming writer for data.json, the counterpart of SnapshotReader.
+ * Fields are written in the same order (and with the same null handling) as Gson's
+ * reflective form of AppState, so files do not change, but nothing is looked up by reflection.
+ */
+class SnapshotWriter {
+    private final TypeAdapter<Category> categoryAdapter = new CategoryTypeAdapter();
+    private final TypeAdapter<Session> sessionAdapter = new SessionTypeAdapter();
+    private final TypeAdapter<DurationSketch> sketchAdapter = new DurationSketchTypeAdapter();
+
+    /**
+     * Sessions are written inline when partitions is null, otherwise the partition map is
+     */
+    void write(JsonWriter out, AppState state, Map<String, String> partitions) throws IOException {
+        out.beginObject();
+
+        out.name("categories").beginArray();
+        for (Category category : state.getCategories()) {
+            categoryAdapter.write(out, category);
+        }
+        out.endArray();
+
+        if (partitions == null) {
+            out.name("sessions").beginArray();
+            for (Session session : state.getSessions()) {
+                sessionAdapter.write(out, session);
+            }
+            out.endArray();
+        }
+
+        out.name("streak").value(state.getStreak());
+        out.name("lastSessionDate").value(state.getLastSessionDate());
+        out.name("theme").value(state.getTheme());
+        out.name("selectedCategory").value(state.getSelectedCategory());
+        out.name("pomodoroWorkMinutes").value(state.getPomodoroWorkMinutes());
+        out.name("pomodoroBreakMinutes").value(state.getPomodoroBreakMinutes());
+        out.name("journalSequence").value(state.getJournalSequence());
+
+        if (state.hasDurationSketches()) {
+            out.name(SnapshotReader.DURATION_SKETCHES).beginObject();
+            for (Map.Entry<String, DurationSketch> sketch : state.getDurationSketches().entrySet()) {
+                out.name(sketch.getKey());
+                sketchAdapter.write(out, sketch.getValue());
+            }
+            out.endObject();
+        }
+
+        if (partitions != null) {
+            out.name(SnapshotReader.SESSION_PARTITIONS).beginObject();
+            for (Map.Entry<String, String> partition : partitions.entrySet()) {
+                out.name(partition.getKey()).value(partition.getValue());
+            }
+            out.endObject();
+        }
+
+        out.endObject();
+    }
+}
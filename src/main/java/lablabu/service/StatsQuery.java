@@ -0,0 +1,108 @@
+package lablabu.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable statistics query: date range, categories, grouping and aggregate.
+ * Each method returns a modified copy, so queries can be kept as constants and used as cache keys.
+ *
+ * Example: StatsQuery.all().between(from, to).categories("Coding").groupBy(GroupBy.WEEK)
+ */
+public final class StatsQuery {
+    public enum GroupBy {
+        NONE,   // One group for the whole range
+        DAY,    // yyyy-MM-dd
+        WEEK,   // ISO week, yyyy-Www
+        MONTH,  // yyyy-MM
+        HOUR    // Hour of day the session started, 00..23
+    }
+
+    public enum Aggregate {
+        SUM,    // Seconds
+        COUNT,  // Sessions
+        AVG     // Average session length in seconds
+    }
+
+    private static final StatsQuery ALL = new StatsQuery(null, null, Collections.emptySet(), GroupBy.NONE, Aggregate.SUM);
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Set<String> categories;
+    private final GroupBy groupBy;
+    private final Aggregate aggregate;
+
+    private StatsQuery(LocalDate from, LocalDate to, Set<String> categories, GroupBy groupBy, Aggregate aggregate) {
+        this.from = from;
+        this.to = to;
+        this.categories = categories;
+        this.groupBy = groupBy;
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Sum of all dated sessions, not grouped
+     */
+    public static StatsQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Inclusive range; null leaves that side open
+     */
+    public StatsQuery between(LocalDate from, LocalDate to) {
+        return new StatsQuery(from, to, categories, groupBy, aggregate);
+    }
+
+    /**
+     * Only these categories (none means all)
+     */
+    public StatsQuery categories(String... names) {
+        Set<String> set = new TreeSet<>(Arrays.asList(names));
+        return new StatsQuery(from, to, Collections.unmodifiableSet(set), groupBy, aggregate);
+    }
+
+    public StatsQuery groupBy(GroupBy groupBy) {
+        return new StatsQuery(from, to, categories, groupBy, aggregate);
+    }
+
+    public StatsQuery aggregate(Aggregate aggregate) {
+        return new StatsQuery(from, to, categories, groupBy, aggregate);
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public Set<String> getCategories() { return categories; }
+    public GroupBy getGroupBy() { return groupBy; }
+    public Aggregate getAggregate() { return aggregate; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StatsQuery)) {
+            return false;
+        }
+        StatsQuery other = (StatsQuery) o;
+        return Objects.equals(from, other.from) && Objects.equals(to, other.to)
+                && categories.equals(other.categories)
+                && groupBy == other.groupBy && aggregate == other.aggregate;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, categories, groupBy, aggregate);
+    }
+
+    @Override
+    public String toString() {
+        return "StatsQuery{" + (from != null ? from : "*") + ".." + (to != null ? to : "*")
+                + ", categories=" + (categories.isEmpty() ? "all" : categories)
+                + ", groupBy=" + groupBy + ", aggregate=" + aggregate + "}";
+    }
+}
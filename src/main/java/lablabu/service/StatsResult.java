@@ -0,0 +1,79 @@
+package lablabu.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a StatsQuery: one group per key, in order (oldest first, or hour 00..23)
+ */
+public final class StatsResult {
+
+    public static final class Group {
+        private final String key;
+        private final long seconds;
+        private final long sessions;
+
+        Group(String key, long seconds, long sessions) {
+            this.key = key;
+            this.seconds = seconds;
+            this.sessions = sessions;
+        }
+
+        public String getKey() { return key; }
+        public long getSeconds() { return seconds; }
+        public long getSessions() { return sessions; }
+
+        public double getValue(StatsQuery.Aggregate aggregate) {
+            switch (aggregate) {
+                case COUNT:
+                    return sessions;
+                case AVG:
+                    return sessions > 0 ? (double) seconds / sessions : 0;
+                default:
+                    return seconds;
+            }
+        }
+    }
+
+    private final StatsQuery query;
+    private final List<Group> groups;
+
+    StatsResult(StatsQuery query, List<Group> groups) {
+        this.query = query;
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    public StatsQuery getQuery() {
+        return query;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * The query's aggregate over all groups together
+     */
+    public double getTotal() {
+        long seconds = 0;
+        long sessions = 0;
+        for (Group group : groups) {
+            seconds += group.seconds;
+            sessions += group.sessions;
+        }
+        return new Group("", seconds, sessions).getValue(query.getAggregate());
+    }
+
+    /**
+     * Group key -> aggregate value, in group order
+     */
+    public Map<String, Double> asMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (Group group : groups) {
+            map.put(group.key, group.getValue(query.getAggregate()));
+        }
+        return map;
+    }
+}
@@ -1,43 +1,162 @@
 package lablabu.service;
 
 import lablabu.model.AppState;
+import lablabu.model.DurationSketch;
 import lablabu.model.Session;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.ObjLongConsumer;
 
 public class StatsService {
+    private static final int HEATMAP_DAYS = 365;
+    private static final int QUERY_CACHE_SIZE = 64;
+    private static final StatsQuery FOCUS_BY_HOUR = StatsQuery.all().groupBy(StatsQuery.GroupBy.HOUR);
+
     private final AppState state;
+    private final Clock clock;
+
+    // Per-day totals, caught up with new sessions on each query
+    private final DailyTotalsIndex dailyTotals = new DailyTotalsIndex();
+    private final DailyTotalsIndex dailyCounts = new DailyTotalsIndex();
+    private long undatedSeconds = 0;
+
+    // Dated sessions as primitive columns, for scans the day indexes cannot answer
+    private final SessionTable table = new SessionTable();
+
+    // Days with at least one session, for streaks
+    private final ActivityCalendar calendar = new ActivityCalendar();
+
+    // Per-category totals and per-day totals, indexed by Session.getCategoryId() + 1 (0 is no category)
+    private long[] categoryTotals = new long[16];
+    private DailyTotalsIndex[] categoryDays = new DailyTotalsIndex[16];
+    private DailyTotalsIndex[] categoryDayCounts = new DailyTotalsIndex[16];
+
+    // Large catch-ups (e.g. after loading millions of imported sessions) are split across cores
+    private ParallelMode parallelMode = ParallelMode.fromSystemProperty();
+
+    private int indexedGeneration = -1;
+    private int indexedCount = 0;
+
+    // Query results for one AppState version; least recently used dropped first
+    private final Map<StatsQuery, StatsResult> queryCache = new LinkedHashMap<StatsQuery, StatsResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StatsQuery, StatsResult> eldest) {
+            return size() > QUERY_CACHE_SIZE;
+        }
+    };
+    private long cachedVersion = -1;
+
+    private StatsSnapshot snapshot;
 
     public StatsService(AppState state) {
+        this(state, Clock.systemDefaultZone());
+    }
+
+    /**
+     * "Today" and the last N days are taken from this clock
+     */
+    public StatsService(AppState state, Clock clock) {
         this.state = state;
+        this.clock = clock;
+    }
+
+    public void setParallelMode(ParallelMode parallelMode) {
+        this.parallelMode = parallelMode;
+        table.setParallelMode(parallelMode);
+    }
+
+    public ParallelMode getParallelMode() {
+        return parallelMode;
     }
 
     /**
      * Get total time for today (in seconds)
      */
     public long getTodayTotal() {
-        String today = LocalDate.now().toString();
-        return state.getSessions().stream()
-                .filter(s -> s.getDate().equals(today))
-                .mapToLong(Session::getDurationSeconds)
-                .sum();
+        syncIndex();
+        return dailyTotals.dayTotal((int) LocalDate.now(clock).toEpochDay());
     }
 
     /**
      * Get time for last N days
      */
     public long getLastNDays(int days) {
-        LocalDate startDate = LocalDate.now().minusDays(days - 1);
-        return state.getSessions().stream()
-                .filter(s -> {
-                    LocalDate sessionDate = LocalDate.parse(s.getDate());
-                    return !sessionDate.isBefore(startDate);
-                })
-                .mapToLong(Session::getDurationSeconds)
-                .sum();
+        LocalDate startDate = LocalDate.now(clock).minusDays(days - 1);
+        state.ensureLoadedFrom(startDate);
+        syncIndex();
+        return dailyTotals.rangeTotal((int) startDate.toEpochDay(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get time between two dates (inclusive)
+     */
+    public long getRangeTotal(LocalDate from, LocalDate to) {
+        state.ensureLoadedFrom(from);
+        syncIndex();
+        return dailyTotals.rangeTotal((int) from.toEpochDay(), (int) to.toEpochDay());
+    }
+
+    /**
+     * Get time for one category between two dates (inclusive)
+     */
+    public long getRangeTotal(String category, LocalDate from, LocalDate to) {
+        state.ensureLoadedFrom(from);
+        syncIndex();
+        DailyTotalsIndex days = categoryDaysOf(category);
+        return days != null ? days.rangeTotal((int) from.toEpochDay(), (int) to.toEpochDay()) : 0;
+    }
+
+    /**
+     * Average seconds per day over the last N days (today included)
+     */
+    public double getRollingAverage(int days) {
+        LocalDate today = LocalDate.now(clock);
+        state.ensureLoadedFrom(today.minusDays(days - 1));
+        syncIndex();
+        return dailyTotals.rollingAverage((int) today.toEpochDay(), days);
+    }
+
+    public double getRollingAverage(String category, int days) {
+        LocalDate today = LocalDate.now(clock);
+        state.ensureLoadedFrom(today.minusDays(days - 1));
+        syncIndex();
+        DailyTotalsIndex index = categoryDaysOf(category);
+        return index != null ? index.rollingAverage((int) today.toEpochDay(), days) : 0;
+    }
+
+    /**
+     * Seconds per day for the last 365 days, oldest first (one heatmap cell per day)
+     */
+    public long[] getYearHeatmap() {
+        LocalDate today = LocalDate.now(clock);
+        return getDailyTotals(today.minusDays(HEATMAP_DAYS - 1), today);
+    }
+
+    public long[] getYearHeatmap(String category) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate from = today.minusDays(HEATMAP_DAYS - 1);
+        state.ensureLoadedFrom(from);
+        syncIndex();
+        DailyTotalsIndex days = categoryDaysOf(category);
+        return days != null
+                ? days.dailyTotals((int) from.toEpochDay(), (int) today.toEpochDay())
+                : new long[HEATMAP_DAYS];
+    }
+
+    /**
+     * Seconds for each day between two dates (inclusive), oldest first
+     */
+    public long[] getDailyTotals(LocalDate from, LocalDate to) {
+        state.ensureLoadedFrom(from);
+        syncIndex();
+        return dailyTotals.dailyTotals((int) from.toEpochDay(), (int) to.toEpochDay());
     }
 
     /**
@@ -58,44 +177,430 @@ public class StatsService {
      * Get all-time total
      */
     public long getAllTimeTotal() {
-        return state.getSessions().stream()
-                .mapToLong(Session::getDurationSeconds)
-                .sum();
+        state.loadFullHistory();
+        syncIndex();
+        return dailyTotals.total() + undatedSeconds;
     }
 
     /**
      * Get statistics by categories (name -> seconds)
      */
     public Map<String, Long> getCategoryStats() {
-        Map<String, Long> stats = new HashMap<>();
-        for (Session session : state.getSessions()) {
-            stats.merge(session.getCategory(), session.getDurationSeconds(), Long::sum);
-        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        forEachCategoryTotal(stats::put);
         return stats;
     }
 
     /**
-     * Calculate current streak
+     * Visit every category with its total (in seconds) without allocating
+     */
+    public void forEachCategoryTotal(ObjLongConsumer<String> consumer) {
+        state.loadFullHistory();
+        syncIndex();
+        for (int slot = 0; slot < categoryTotals.length; slot++) {
+            if (categoryTotals[slot] > 0) {
+                consumer.accept(categoryName(slot), categoryTotals[slot]);
+            }
+        }
+    }
+
+    /**
+     * Get total for one category (in seconds)
+     */
+    public long getCategoryTotal(String category) {
+        state.loadFullHistory();
+        syncIndex();
+        int slot = slotOf(category);
+        return slot >= 0 ? categoryTotals[slot] : 0;
+    }
+
+    /**
+     * Session length (in seconds) at each quantile, e.g. 0.5, 0.9, 0.99; category null means all.
+     * Read from the persisted sketches, so no history is loaded or sorted; each value is within
+     * 1% of the exact one (see DurationSketch).
+     */
+    public double[] getSessionLengthQuantiles(String category, double... quantiles) {
+        DurationSketch sketch;
+        if (category == null) {
+            sketch = new DurationSketch();
+            for (DurationSketch categorySketch : state.getDurationSketches().values()) {
+                sketch.merge(categorySketch);
+            }
+        } else {
+            sketch = state.getDurationSketches().get(category);
+        }
+
+        double[] result = new double[quantiles.length];
+        if (sketch != null) {
+            for (int i = 0; i < quantiles.length; i++) {
+                result[i] = sketch.quantile(quantiles[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All panel figures at once, including each category's today/week/month/all-time totals.
+     * Built in one sweep over the indexes (each window is a Fenwick range sum, so the cost does not
+     * grow with the history) and reused until a session changes or the day rolls over.
+     */
+    public StatsSnapshot snapshot() {
+        state.loadFullHistory();
+        syncIndex();
+        LocalDate date = LocalDate.now(clock);
+        long version = state.getModificationVersion();
+        if (snapshot != null && snapshot.getVersion() == version && snapshot.getDate().equals(date.toString())) {
+            return snapshot;
+        }
+
+        int today = (int) date.toEpochDay();
+        int weekStart = today - 6;
+        int monthStart = today - 29;
+        List<StatsSnapshot.CategoryTotals> categories = new ArrayList<>();
+        for (int slot = 0; slot < categoryTotals.length; slot++) {
+            if (categoryTotals[slot] <= 0) {
+                continue;
+            }
+            DailyTotalsIndex days = categoryDays[slot];
+            categories.add(new StatsSnapshot.CategoryTotals(categoryName(slot),
+                    days != null ? days.dayTotal(today) : 0,
+                    days != null ? days.rangeTotal(weekStart, today) : 0,
+                    days != null ? days.rangeTotal(monthStart, today) : 0,
+                    categoryTotals[slot]));
+        }
+
+        int mostFocusedHour = -1;
+        long mostFocusedSeconds = 0;
+        for (StatsResult.Group group : query(FOCUS_BY_HOUR).getGroups()) {
+            if (group.getSeconds() > mostFocusedSeconds) {
+                mostFocusedSeconds = group.getSeconds();
+                mostFocusedHour = Integer.parseInt(group.getKey());
+            }
+        }
+
+        snapshot = new StatsSnapshot(date.toString(), version,
+                dailyTotals.dayTotal(today),
+                dailyTotals.rangeTotal(weekStart, today),
+                dailyTotals.rangeTotal(monthStart, today),
+                dailyTotals.total() + undatedSeconds,
+                calendar.currentStreak(today),
+                calendar.longestStreak(),
+                dailyTotals.rollingAverage(today, 7),
+                dailyTotals.rollingAverage(today, 30),
+                dailyTotals.rollingAverage(today, 90),
+                getSessionLengthQuantiles(null, 0.5, 0.9, 0.99),
+                mostFocusedHour,
+                categories);
+        return snapshot;
+    }
+
+    /**
+     * Run a query, or return the cached result if no session changed since it was last run.
+     * Day, week, month and whole-range groups are read from the per-day indexes; HOUR groups
+     * scan the sessions in range (by start time; sessions without one are left out).
+     * Sessions without a date are not included in any query.
+     */
+    public StatsResult query(StatsQuery query) {
+        if (query.getFrom() != null) {
+            state.ensureLoadedFrom(query.getFrom());
+        } else {
+            state.loadFullHistory();
+        }
+        syncIndex();
+
+        if (cachedVersion != state.getModificationVersion()) {
+            queryCache.clear();
+            cachedVersion = state.getModificationVersion();
+        }
+        StatsResult result = queryCache.get(query);
+        if (result == null) {
+            result = runQuery(query);
+            queryCache.put(query, result);
+        }
+        return result;
+    }
+
+    private StatsResult runQuery(StatsQuery query) {
+        List<StatsResult.Group> groups = new ArrayList<>();
+        int from = query.getFrom() != null ? (int) query.getFrom().toEpochDay() : calendar.firstActiveDay();
+        int to = query.getTo() != null ? (int) query.getTo().toEpochDay() : calendar.lastActiveDay();
+        if (from < 0 && query.getFrom() == null || to < from) {
+            return new StatsResult(query, groups);
+        }
+        if (query.getGroupBy() == StatsQuery.GroupBy.HOUR) {
+            return hourQuery(query, from, to);
+        }
+
+        long[] seconds;
+        long[] counts;
+        if (query.getCategories().isEmpty()) {
+            seconds = dailyTotals.dailyTotals(from, to);
+            counts = dailyCounts.dailyTotals(from, to);
+        } else {
+            seconds = new long[to - from + 1];
+            counts = new long[to - from + 1];
+            for (String category : query.getCategories()) {
+                int slot = slotOf(category);
+                if (slot >= 0 && categoryDays[slot] != null) {
+                    addTo(seconds, categoryDays[slot].dailyTotals(from, to));
+                    addTo(counts, categoryDayCounts[slot].dailyTotals(from, to));
+                }
+            }
+        }
+
+        // Days are in order, so each group is one run of days with the same key
+        String key = null;
+        long groupSeconds = 0;
+        long groupCount = 0;
+        for (int i = 0; i < seconds.length; i++) {
+            String dayKey = groupKey(query.getGroupBy(), LocalDate.ofEpochDay(from + i));
+            if (!dayKey.equals(key)) {
+                if (key != null) {
+                    groups.add(new StatsResult.Group(key, groupSeconds, groupCount));
+                }
+                key = dayKey;
+                groupSeconds = 0;
+                groupCount = 0;
+            }
+            groupSeconds += seconds[i];
+            groupCount += counts[i];
+        }
+        if (key != null) {
+            groups.add(new StatsResult.Group(key, groupSeconds, groupCount));
+        }
+        return new StatsResult(query, groups);
+    }
+
+    private StatsResult hourQuery(StatsQuery query, int from, int to) {
+        long[] seconds = new long[24];
+        long[] counts = new long[24];
+        table.sumByHour(from, to, categoryMask(query), seconds, counts);
+        List<StatsResult.Group> groups = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            groups.add(new StatsResult.Group(String.format("%02d", hour), seconds[hour], counts[hour]));
+        }
+        return new StatsResult(query, groups);
+    }
+
+    // Session category ids selected by the query, null for all
+    private static boolean[] categoryMask(StatsQuery query) {
+        if (query.getCategories().isEmpty()) {
+            return null;
+        }
+        int[] ids = new int[query.getCategories().size()];
+        int maxId = -1;
+        int n = 0;
+        for (String category : query.getCategories()) {
+            ids[n] = Session.categoryIdOf(category);
+            maxId = Math.max(maxId, ids[n++]);
+        }
+        boolean[] mask = new boolean[maxId + 1];
+        for (int id : ids) {
+            if (id >= 0) {
+                mask[id] = true;
+            }
+        }
+        return mask;
+    }
+
+    private static String groupKey(StatsQuery.GroupBy groupBy, LocalDate date) {
+        switch (groupBy) {
+            case DAY:
+                return date.toString();
+            case WEEK:
+                return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH:
+                return date.toString().substring(0, 7);
+            default:
+                return "all";
+        }
+    }
+
+    private static void addTo(long[] target, long[] values) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += values[i];
+        }
+    }
+
+    /**
+     * Calculate the streak for a session about to be recorded, on the session's own day (today if it has none).
+     * Recomputed from the session history, so imported or edited sessions count correctly.
+     */
+    public void calculateStreak(Session session) {
+        int day = session.getEpochDay();
+        if (day == Session.NO_DAY) {
+            day = (int) LocalDate.now(clock).toEpochDay();
+        }
+        syncIndex();
+        // Marked now; the session itself is indexed once it is added to the state
+        calendar.add(day);
+        int lastDay = calendar.lastActiveDay();
+        if (ensureRunLoaded(lastDay)) {
+            calendar.add(day);
+        }
+        state.setStreak(Math.max(1, calendar.streakEndingAt(lastDay)));
+    }
+
+    /**
+     * Streak as of today (still counts yesterday's run until today is over)
+     */
+    public int getCurrentStreak() {
+        int today = (int) LocalDate.now(clock).toEpochDay();
+        syncIndex();
+        ensureRunLoaded(calendar.isActive(today) ? today : today - 1);
+        return calendar.currentStreak(today);
+    }
+
+    public int getLongestStreak() {
+        state.loadFullHistory();
+        syncIndex();
+        return calendar.longestStreak();
+    }
+
+    /**
+     * All streaks of at least minDays days, oldest first
+     */
+    public List<ActivityCalendar.Streak> getStreakHistory(int minDays) {
+        state.loadFullHistory();
+        syncIndex();
+        return calendar.streaks(minDays);
+    }
+
+    /**
+     * A run ending at lastDay may reach back into months not loaded yet.
+     * Returns true if the history was loaded (and the index rebuilt).
+     */
+    private boolean ensureRunLoaded(int lastDay) {
+        if (state.isHistoryLoaded()) {
+            return false;
+        }
+        state.ensureLoadedFrom(LocalDate.ofEpochDay(lastDay - calendar.streakEndingAt(lastDay)));
+        if (!state.isHistoryLoaded()) {
+            return false;
+        }
+        syncIndex();
+        return true;
+    }
+
+    /**
+     * Bring the day index up to date: new sessions at the end are added,
+     * a replaced or extended-in-front list is indexed again
+     */
+    private void syncIndex() {
+        List<Session> sessions = state.getSessions();
+        if (indexedGeneration != state.getSessionsGeneration() || sessions.size() < indexedCount) {
+            dailyTotals.clear();
+            dailyCounts.clear();
+            table.clear();
+            calendar.clear();
+            undatedSeconds = 0;
+            Arrays.fill(categoryTotals, 0);
+            for (int id = 0; id < categoryDays.length; id++) {
+                if (categoryDays[id] != null) {
+                    categoryDays[id].clear();
+                    categoryDayCounts[id].clear();
+                }
+            }
+            indexedCount = 0;
+            indexedGeneration = state.getSessionsGeneration();
+        }
+
+        // Bulk totals beat per-session tree updates for large catch-ups even on one core
+        int pending = sessions.size() - indexedCount;
+        if (pending >= ParallelMode.THRESHOLD || parallelMode.shouldSplit(pending)) {
+            indexAggregate(sessions, indexedCount);
+        } else {
+            for (int i = indexedCount; i < sessions.size(); i++) {
+                indexSession(sessions.get(i));
+            }
+        }
+        indexedCount = sessions.size();
+    }
+
+    private void indexSession(Session session) {
+        int slot = ensureSlot(session.getCategoryId() + 1);
+        categoryTotals[slot] += session.getDurationSeconds();
+        table.add(session);
+
+        int day = session.getEpochDay();
+        if (day != Session.NO_DAY) {
+            dailyTotals.add(day, session.getDurationSeconds());
+            dailyCounts.add(day, 1);
+            calendar.add(day);
+            categoryDaysOf(slot).add(day, session.getDurationSeconds());
+            categoryDayCounts[slot].add(day, 1);
+        } else {
+            undatedSeconds += session.getDurationSeconds();
+        }
+    }
+
+    /**
+     * Same result as indexSession for every session from the given index on, but totalled
+     * (in parallel chunks if the mode allows) by SessionAggregate and then added to each index
+     * in one linear pass
      */
-    public void calculateStreak(String today) {
-        String lastDateStr = state.getLastSessionDate();
-        if (lastDateStr == null || lastDateStr.isEmpty()) {
-            state.setStreak(1);
-            return;
+    private void indexAggregate(List<Session> sessions, int from) {
+        SessionAggregate aggregate = SessionAggregate.compute(sessions, from, sessions.size(), parallelMode);
+
+        // Aggregate slots are the same as ours
+        ensureSlot(aggregate.categorySeconds.length - 1);
+        for (int slot = 0; slot < aggregate.categorySeconds.length; slot++) {
+            categoryTotals[slot] += aggregate.categorySeconds[slot];
+            if (aggregate.categoryDaySeconds[slot] != null) {
+                categoryDaysOf(slot).addAll(aggregate.firstDay, aggregate.categoryDaySeconds[slot]);
+                categoryDayCounts[slot].addAll(aggregate.firstDay, aggregate.categoryDayCounts[slot]);
+            }
         }
 
-        LocalDate lastDate = LocalDate.parse(lastDateStr);
-        LocalDate todayDate = LocalDate.parse(today);
-        long daysBetween = ChronoUnit.DAYS.between(lastDate, todayDate);
+        dailyTotals.addAll(aggregate.firstDay, aggregate.daySeconds);
+        dailyCounts.addAll(aggregate.firstDay, aggregate.dayCounts);
+        for (int i = 0; i < aggregate.days; i++) {
+            if (aggregate.dayCounts[i] > 0) {
+                calendar.add(aggregate.firstDay + i);
+            }
+        }
+        undatedSeconds += aggregate.undatedSeconds;
+        for (int i = from; i < sessions.size(); i++) {
+            table.add(sessions.get(i));
+        }
+    }
 
-        if (daysBetween == 1) {
-            // Continue streak
-            state.setStreak(state.getStreak() + 1);
-        } else if (daysBetween > 1) {
-            // Missed days - reset streak
-            state.setStreak(1);
+    // Grow the per-category arrays to hold the slot
+    private int ensureSlot(int slot) {
+        if (slot >= categoryTotals.length) {
+            int capacity = Math.max(slot + 1, categoryTotals.length * 2);
+            categoryTotals = Arrays.copyOf(categoryTotals, capacity);
+            categoryDays = Arrays.copyOf(categoryDays, capacity);
+            categoryDayCounts = Arrays.copyOf(categoryDayCounts, capacity);
         }
-        // If daysBetween == 0, there was already a session today, don't change streak
+        return slot;
+    }
+
+    // Slot of a category name, -1 if no indexed session uses it
+    private int slotOf(String category) {
+        if (category == null) {
+            return 0;
+        }
+        int slot = Session.categoryIdOf(category) + 1;
+        return slot > 0 && slot < categoryTotals.length ? slot : -1;
+    }
+
+    private static String categoryName(int slot) {
+        return slot > 0 ? Session.categoryName(slot - 1) : null;
+    }
+
+    // Day index of a category slot, created on first use
+    private DailyTotalsIndex categoryDaysOf(int slot) {
+        if (categoryDays[slot] == null) {
+            categoryDays[slot] = new DailyTotalsIndex();
+            categoryDayCounts[slot] = new DailyTotalsIndex();
+        }
+        return categoryDays[slot];
+    }
+
+    private DailyTotalsIndex categoryDaysOf(String category) {
+        int slot = slotOf(category);
+        return slot >= 0 ? categoryDays[slot] : null;
     }
 
     /**
@@ -0,0 +1,111 @@
+package lablabu.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every figure of the statistics panel, computed together by StatsService.snapshot().
+ * Immutable; a new snapshot is made when a session changes or the day rolls over.
+ */
+public final class StatsSnapshot {
+
+    /**
+     * One category's time (in seconds) in each window
+     */
+    public static final class CategoryTotals {
+        private final String category;
+        private final long today;
+        private final long week;
+        private final long month;
+        private final long allTime;
+
+        CategoryTotals(String category, long today, long week, long month, long allTime) {
+            this.category = category;
+            this.today = today;
+            this.week = week;
+            this.month = month;
+            this.allTime = allTime;
+        }
+
+        public String getCategory() { return category; }
+        public long getToday() { return today; }
+        public long getWeek() { return week; }
+        public long getMonth() { return month; }
+        public long getAllTime() { return allTime; }
+    }
+
+    private final String date;
+    private final long version;
+    private final long today;
+    private final long week;
+    private final long month;
+    private final long allTime;
+    private final int currentStreak;
+    private final int longestStreak;
+    private final double average7;
+    private final double average30;
+    private final double average90;
+    private final double medianLength;
+    private final double p90Length;
+    private final double p99Length;
+    private final int mostFocusedHour;
+    private final List<CategoryTotals> categories;
+
+    StatsSnapshot(String date, long version, long today, long week, long month, long allTime,
+                  int currentStreak, int longestStreak, double average7, double average30, double average90,
+                  double[] lengths, int mostFocusedHour, List<CategoryTotals> categories) {
+        this.date = date;
+        this.version = version;
+        this.today = today;
+        this.week = week;
+        this.month = month;
+        this.allTime = allTime;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.average7 = average7;
+        this.average30 = average30;
+        this.average90 = average90;
+        this.medianLength = lengths[0];
+        this.p90Length = lengths[1];
+        this.p99Length = lengths[2];
+        this.mostFocusedHour = mostFocusedHour;
+        this.categories = Collections.unmodifiableList(categories);
+    }
+
+    /**
+     * Day the windows end on, as yyyy-MM-dd
+     */
+    public String getDate() { return date; }
+
+    /**
+     * AppState modification version the figures were computed from
+     */
+    public long getVersion() { return version; }
+
+    public long getToday() { return today; }
+    public long getWeek() { return week; }
+    public long getMonth() { return month; }
+    public long getAllTime() { return allTime; }
+    public int getCurrentStreak() { return currentStreak; }
+    public int getLongestStreak() { return longestStreak; }
+
+    // Average seconds per day over the last 7, 30 and 90 days
+    public double getAverage7() { return average7; }
+    public double getAverage30() { return average30; }
+    public double getAverage90() { return average90; }
+
+    // Session length quantiles in seconds
+    public double getMedianLength() { return medianLength; }
+    public double getP90Length() { return p90Length; }
+    public double getP99Length() { return p99Length; }
+
+    /**
+     * Hour of day (0-23) with the most focus time, -1 if there is none
+     */
+    public int getMostFocusedHour() { return mostFocusedHour; }
+
+    /**
+     * Categories with any time, in the order they were first used
+     */
+    public List<CategoryTotals> getCategories() { return categories; }
+}
@@ -2,106 +2,450 @@ package lablabu.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import lablabu.model.AppState;
-import lablabu.model.Category;
 import lablabu.model.Session;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StorageService {
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Journal records after which the journal is folded into a new snapshot
+    static final int COMPACTION_THRESHOLD = 500;
+    // Months kept in memory at startup (current + previous covers the 30-day stats)
+    private static final int EAGER_MONTHS = 2;
+
+    // data.json is pretty-printed unless -Dlablabu.json=compact
+    private final Gson gson = "compact".equalsIgnoreCase(System.getProperty("lablabu.json", "pretty"))
+            ? new Gson()
+            : new GsonBuilder().setPrettyPrinting().create();
+    private final Gson journalGson = new GsonBuilder()
+            .registerTypeAdapter(JournalRecord.class, new JournalRecordTypeAdapter())
+            .create();
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
     private final String FILE_NAME = "data.json";
+    private final String BACKUP_NAME = "data.json.bak";
+    private final String JOURNAL_NAME = "data.journal";
+    private final String OLD_JOURNAL_NAME = "data.journal.old";
+    private final String SESSIONS_DIR = "sessions";
+
+    // Keep sessions in month partitions (sessions/YYYY-MM-<seq>.bin) instead of inline JSON
+    private final boolean binarySessions;
+    private final PartitionedSessionStore partitionStore;
+    // Directory holding data.json, the journals and sessions/
+    private final Path directory;
+    // Decides which months are recent enough to load eagerly
+    private final Clock clock;
+
+    private int journalRecords = 0;
+    private long lastSequence = 0;
+    private boolean snapshotNeedsRewrite = false;
+
+    // Partition map of data.json (null when sessions are inline)
+    private Map<String, String> currentPartitions;
+    // Partition files a lazy AppState may still read; never deleted while this service lives
+    private final Set<String> pinnedPartitions = new HashSet<>();
+    // Partition files that failed to read; while any is listed data.json is not rewritten
+    private final Set<String> unreadablePartitions = ConcurrentHashMap.newKeySet();
+    // Set when the last load() had to fall back to the previous generation
+    private boolean recoveredFromBackup = false;
 
+    /**
+     * Backend is chosen with -Dlablabu.storage=binary|json (default binary)
+     */
+    public StorageService(Clock clock) {
+        this(!"json".equalsIgnoreCase(System.getProperty("lablabu.storage", "binary")), clock);
+    }
+
+    public StorageService(boolean binarySessions, Clock clock) {
+        this(binarySessions, Path.of(""), clock);
+    }
+
+    StorageService(boolean binarySessions, Path directory, Clock clock) {
+        this.binarySessions = binarySessions;
+        this.directory = directory;
+        this.clock = clock;
+        this.partitionStore = new PartitionedSessionStore(directory.resolve(SESSIONS_DIR));
+    }
+
+    /**
+     * Write a full snapshot and start a fresh journal.
+     * The previous snapshot and journal are kept as the last good generation.
+     */
     public void save(AppState state) {
-        try (Writer writer = new FileWriter(FILE_NAME)) {
-            gson.toJson(state, writer);
-        } catch (IOException e) {
+        try {
+            state.loadFullHistory();
+            if (!canRewriteSnapshot()) {
+                return;
+            }
+            Map<String, String> partitions = null;
+            if (binarySessions) {
+                if (canEncodeAll(state)) {
+                    partitions = partitionStore.writeAll(state.getSessions(), lastSequence);
+                }
+            }
+            writeSnapshotFile(state, partitions);
+        } catch (IOException | UncheckedIOException e) {
             e.printStackTrace();
         }
     }
 
-    public AppState load() {
-        File file = new File(FILE_NAME);
-        if (!file.exists()) {
-            return new AppState();
+    /**
+     * Write a complete data.json (sessions inline) to another file
+     */
+    public void exportJson(AppState state, Path target) throws IOException {
+        state.loadFullHistory();
+        AtomicFiles.write(target, null, out -> writeSnapshot(state, null, out));
+    }
+
+    /**
+     * Read a data.json-format file with inline sessions, e.g. one produced by exportJson
+     */
+    public AppState importJson(Path source) throws IOException {
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(source.toFile()), StandardCharsets.UTF_8)))) {
+            return new SnapshotReader(gson).read(reader);
         }
+    }
+
+    /**
+     * Append a single new session to the journal (cost does not depend on history size)
+     */
+    public void appendSession(AppState state, Session session) {
+        append(JournalRecord.session(state, session));
+    }
 
-        try (Reader reader = new FileReader(FILE_NAME)) {
-            JsonObject jsonObject = JsonParser.parseReader(reader).getAsJsonObject();
+    /**
+     * Append current settings (categories, theme, timer minutes) to the journal
+     */
+    public void saveSettings(AppState state) {
+        append(JournalRecord.settings(state));
+    }
+
+    /**
+     * Fold the journal into data.json.
+     * With partitions only the months that received new sessions are rewritten.
+     */
+    public void compact() {
+        if (!canRewriteSnapshot()) {
+            return;
+        }
+        if (!binarySessions || currentPartitions == null) {
+            save(load());
+            return;
+        }
 
-            if (jsonObject.has("categories")) {
-                JsonArray categoriesArray = jsonObject.getAsJsonArray("categories");
+        journalRecords = 0;
+        AppState state = loadSnapshot(path(FILE_NAME).toFile(), false);
+        if (state == null || currentPartitions == null) {
+            save(load());
+            return;
+        }
 
-                if (categoriesArray.size() > 0) {
-                    JsonElement firstCategory = categoriesArray.get(0);
+        // Sessions are not read, so after replay the list holds only the journal's new sessions
+        long snapshotSequence = state.getJournalSequence();
+        replayJournal(state, path(OLD_JOURNAL_NAME), snapshotSequence, false);
+        replayJournal(state, path(JOURNAL_NAME), snapshotSequence, true);
 
-                    if (firstCategory.isJsonPrimitive() && firstCategory.getAsJsonPrimitive().isString()) {
-                        return migrateOldFormat(jsonObject);
-                    }
+        try {
+            Map<String, String> partitions = currentPartitions;
+            if (!state.getSessions().isEmpty()) {
+                if (!canEncodeAll(state)) {
+                    save(load());
+                    return;
                 }
+                partitions = partitionStore.append(currentPartitions, state.getSessions(), lastSequence);
             }
+            writeSnapshotFile(state, partitions);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            return gson.fromJson(jsonObject, AppState.class);
+    void append(JournalRecord record) {
+        record.seq = lastSequence + 1;
+        byte[] line = (journalGson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
 
-        } catch (Exception e) {
-            return new AppState();
+        try (FileChannel channel = FileChannel.open(path(JOURNAL_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        lastSequence = record.seq;
+        journalRecords++;
+        if (journalRecords >= COMPACTION_THRESHOLD) {
+            compact();
         }
     }
 
-    private AppState migrateOldFormat(JsonObject oldData) {
-        AppState newState = new AppState();
+    /**
+     * Load the latest snapshot and replay the journal on top of it.
+     * A torn or corrupt data.json is moved aside and the previous generation
+     * (data.json.bak + both journals) is used instead. Replay work is bounded by
+     * the compaction threshold, not by history size.
+     *
+     * With month partitions only recent months are read; older ones are read
+     * the first time AppState.loadFullHistory() is called.
+     */
+    public AppState load() {
+        journalRecords = 0;
+        snapshotNeedsRewrite = false;
+        unreadablePartitions.clear();
+        recoveredFromBackup = false;
 
-        try {
-            if (oldData.has("categories")) {
-                JsonArray oldCategories = oldData.getAsJsonArray("categories");
-                List<Category> newCategories = new ArrayList<>();
-                String[] defaultColors = {"#79f5b0", "#65f7a1", "#9feacb", "#ffb86b", "#ff8c42", "#a29bfe"};
-
-                for (int i = 0; i < oldCategories.size(); i++) {
-                    String categoryName = oldCategories.get(i).getAsString();
-                    String color = defaultColors[i % defaultColors.length];
-                    newCategories.add(new Category(categoryName, color));
-                }
+        File file = path(FILE_NAME).toFile();
+        File backup = path(BACKUP_NAME).toFile();
+        AppState state = loadSnapshot(file, true);
 
-                newState.setCategories(newCategories);
+        if (state == null && (file.exists() || backup.exists())) {
+            if (file.exists()) {
+                quarantine(file);
             }
+            state = loadSnapshot(backup, true);
+            recoveredFromBackup = true;
+        }
+        if (state == null) {
+            state = new AppState();
+        }
 
-            if (oldData.has("sessions")) {
-                JsonArray sessionsArray = oldData.getAsJsonArray("sessions");
-                List<Session> sessions = new ArrayList<>();
+        long snapshotSequence = state.getJournalSequence();
+        lastSequence = snapshotSequence;
+        replayJournal(state, path(OLD_JOURNAL_NAME), snapshotSequence, false);
+        journalRecords = replayJournal(state, path(JOURNAL_NAME), snapshotSequence, true);
 
-                for (JsonElement sessionElement : sessionsArray) {
-                    JsonObject sessionObj = sessionElement.getAsJsonObject();
-                    String category = sessionObj.get("category").getAsString();
-                    long duration = sessionObj.get("durationSeconds").getAsLong();
-                    String date = sessionObj.get("date").getAsString();
-                    sessions.add(new Session(category, duration, date));
-                }
+        if (!state.hasDurationSketches()) {
+            // One-time full read for files written before session-length sketches
+            state.rebuildDurationSketches();
+            snapshotNeedsRewrite = true;
+        }
+        if (recoveredFromBackup || snapshotNeedsRewrite) {
+            save(state);
+        }
+        return state;
+    }
+
+    /**
+     * Description of a storage problem the user should know about, null if there is none
+     */
+    public String getProblem() {
+        if (!unreadablePartitions.isEmpty()) {
+            return "Some session history could not be read (" + String.join(", ", new TreeSet<>(unreadablePartitions))
+                    + " in " + SESSIONS_DIR + "). data.json is left unchanged and new sessions are kept in "
+                    + JOURNAL_NAME + ".";
+        }
+        if (recoveredFromBackup) {
+            return FILE_NAME + " was damaged and has been moved aside. Your data was restored from "
+                    + BACKUP_NAME + " and the journal.";
+        }
+        return null;
+    }
 
-                newState.setSessions(sessions);
+    /**
+     * Returns null when the file is missing, torn or not valid JSON.
+     * A month partition that cannot be read does not make data.json corrupt: it is skipped
+     * and listed in unreadablePartitions instead.
+     */
+    private AppState loadSnapshot(File file, boolean readSessions) {
+        if (!file.exists()) {
+            return null;
+        }
+
+        SnapshotReader snapshotReader = new SnapshotReader(gson);
+        AppState state;
+        try (JsonReader reader = new JsonReader(new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 64 * 1024))) {
+            state = snapshotReader.read(reader);
+        } catch (IOException | RuntimeException e) {
+            // Torn write, not JSON, or JSON of the wrong shape
+            return null;
+        }
+
+        Map<String, String> partitions = snapshotReader.getPartitions();
+        if (partitions != null && readSessions) {
+            attachPartitions(state, partitions);
+        }
+        currentPartitions = partitions;
+
+        // Old format, or inline sessions while the binary backend is selected
+        if (snapshotReader.wasOldFormat() || (binarySessions && partitions == null && !state.getSessions().isEmpty())) {
+            snapshotNeedsRewrite = true;
+        }
+        return state;
+    }
+
+    private void attachPartitions(AppState state, Map<String, String> partitions) {
+        YearMonth eagerFrom = YearMonth.now(clock).minusMonths(EAGER_MONTHS - 1);
+        state.setSessions(partitionStore.readFrom(partitions, eagerFrom, unreadablePartitions));
+        pinnedPartitions.addAll(partitions.values());
+
+        boolean hasOlder = partitions.keySet().stream()
+                .anyMatch(month -> !month.equals(PartitionedSessionStore.UNDATED)
+                        && YearMonth.parse(month).isBefore(eagerFrom));
+        if (hasOlder) {
+            Map<String, String> snapshotPartitions = new TreeMap<>(partitions);
+            state.setOlderSessionsLoader(eagerFrom.atDay(1),
+                    () -> partitionStore.readBefore(snapshotPartitions, eagerFrom, unreadablePartitions));
+        }
+    }
+
+    /**
+     * False while a partition is unreadable: a new data.json would drop its month.
+     * New sessions stay in the journal until the file is back and the app restarts.
+     */
+    private boolean canRewriteSnapshot() {
+        return unreadablePartitions.isEmpty();
+    }
+
+    private boolean canEncodeAll(AppState state) {
+        for (Session session : state.getSessions()) {
+            if (!BinarySessionStore.canEncode(session)) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    private void writeSnapshotFile(AppState state, Map<String, String> partitions) throws IOException {
+        state.setJournalSequence(lastSequence);
+        AtomicFiles.write(path(FILE_NAME), path(BACKUP_NAME), out -> writeSnapshot(state, partitions, out));
+
+        Path journal = path(JOURNAL_NAME);
+        if (Files.exists(journal)) {
+            AtomicFiles.move(journal, path(OLD_JOURNAL_NAME));
+        }
+
+        // data.json.bak still points at the previous partition files
+        Set<String> keep = new HashSet<>(pinnedPartitions);
+        if (partitions != null) {
+            keep.addAll(partitions.values());
+        }
+        if (currentPartitions != null) {
+            keep.addAll(currentPartitions.values());
+        }
+        partitionStore.deleteExcept(keep);
+
+        currentPartitions = partitions;
+        journalRecords = 0;
+    }
+
+    private Path path(String name) {
+        return directory.resolve(name);
+    }
+
+    private void writeSnapshot(AppState state, Map<String, String> partitions, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        snapshotWriter.write(jsonWriter, state, partitions);
+        jsonWriter.flush();
+        writer.flush();
+    }
+
+    private void quarantine(File file) {
+        try {
+            Path target = path(FILE_NAME + ".corrupt-" + System.currentTimeMillis());
+            Files.move(file.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Apply journal records newer than the snapshot. Returns the number of records kept in the file.
+     * A torn tail of the live journal (crash in the middle of an append) is cut off so new records
+     * start on a clean line.
+     *
+     * Records without a sequence number predate sequences. Only the live journal of a snapshot that
+     * has never seen a sequence can hold unapplied ones; each is numbered as it is applied, so the
+     * next snapshot covers them and they are not applied again from data.journal.old.
+     */
+    private int replayJournal(AppState state, Path journal, long snapshotSequence, boolean live) {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
 
-            if (oldData.has("streak")) {
-                newState.setStreak(oldData.get("streak").getAsInt());
+        byte[] data;
+        try {
+            data = Files.readAllBytes(journal);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+
+        int records = 0;
+        int lineStart = 0;
+        int validLength = 0;
+        while (lineStart < data.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < data.length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == data.length) {
+                // No newline - the last append did not finish
+                break;
             }
 
-            if (oldData.has("lastSessionDate")) {
-                newState.setLastSessionDate(oldData.get("lastSessionDate").getAsString());
+            String line = new String(data, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            lineStart = lineEnd + 1;
+            if (line.isBlank()) {
+                validLength = lineStart;
+                continue;
             }
 
-            newState.setTheme("dark");
-            save(newState);
+            JournalRecord record;
+            try {
+                record = journalGson.fromJson(line, JournalRecord.class);
+            } catch (JsonParseException e) {
+                continue;
+            }
+            validLength = lineStart;
+            if (record == null) {
+                continue;
+            }
 
-            return newState;
+            records++;
+            if (record.seq == 0) {
+                if (live && snapshotSequence == 0) {
+                    record.applyTo(state);
+                    lastSequence++;
+                }
+            } else if (record.seq > snapshotSequence) {
+                record.applyTo(state);
+            }
+            lastSequence = Math.max(lastSequence, record.seq);
+        }
 
-        } catch (Exception e) {
-            return new AppState();
+        if (live && validLength < data.length) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(false);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
+        return records;
     }
 }
\ No newline at end of file
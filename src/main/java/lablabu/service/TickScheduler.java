@@ -0,0 +1,15 @@
+package lablabu.service;
+
+/**
+ * Drives TimerEngine repaints. The engine measures time itself,
+ * so a scheduler only has to call tick roughly every interval.
+ */
+public interface TickScheduler {
+
+    /**
+     * Start calling tick periodically (replaces a previous tick if already started)
+     */
+    void start(Runnable tick);
+
+    void stop();
+}
@@ -0,0 +1,40 @@
+package lablabu.service;
+
+/**
+ * HH:MM:SS formatting from a precomputed digit table into a reusable buffer.
+ * Replaces String.format, which parses the pattern and allocates a Formatter on every call.
+ * Not thread-safe: use one instance per display.
+ */
+public class TimeFormatter {
+    private static final char[] TENS = new char[100];
+    private static final char[] ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char) ('0' + i / 10);
+            ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private final char[] buffer = {'0', '0', ':', '0', '0', ':', '0', '0'};
+
+    /**
+     * Format to HH:MM:SS (hours above 99 keep all their digits)
+     */
+    public String format(int totalSeconds) {
+        int h = totalSeconds / 3600;
+        int m = (totalSeconds % 3600) / 60;
+        int s = totalSeconds % 60;
+
+        buffer[3] = TENS[m];
+        buffer[4] = ONES[m];
+        buffer[6] = TENS[s];
+        buffer[7] = ONES[s];
+        if (h > 99) {
+            return h + ":" + new String(buffer, 3, 5);
+        }
+        buffer[0] = TENS[h];
+        buffer[1] = ONES[h];
+        return new String(buffer);
+    }
+}
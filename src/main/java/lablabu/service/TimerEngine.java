@@ -0,0 +1,331 @@
+package lablabu.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Timer state machine (FREE/POMODORO/CUSTOM, WORK/BREAK) without any UI toolkit dependency.
+ * Elapsed time comes from a monotonic clock; the TickScheduler only decides how often
+ * the display is refreshed and the end of a phase is noticed.
+ *
+ * The wall clock is only used for the session's start/end instants. Every tick compares how far
+ * both clocks moved: a large disagreement is a system sleep (handled by the SleepPolicy), a small
+ * one a wall-clock step (NTP, manual change) that shifts the recorded start instead. A long gap on
+ * both clocks is a stall and its time is kept, except on Windows where it is how a sleep looks.
+ *
+ * Callbacks run on the scheduler's thread (the FX thread for FxTickScheduler).
+ */
+public class TimerEngine {
+    // Pomodoro durations (constants - don't change)
+    private static final int POMODORO_WORK_DURATION = 25 * 60;  // 25 minutes
+    private static final int POMODORO_BREAK_DURATION = 5 * 60;   // 5 minutes
+
+    // Clock disagreement between two checks treated as a sleep, or as a wall-clock step
+    private static final long SLEEP_THRESHOLD_NANOS = 10_000_000_000L;
+    private static final long JUMP_THRESHOLD_NANOS = 1_000_000_000L;
+
+    // Elsewhere both clocks moving by the same large amount is a stall (GC, blocked thread), not a sleep
+    private static final boolean MONOTONIC_COUNTS_SLEEP =
+        System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+    private final TickScheduler scheduler;
+    private final LongSupplier nanoClock;
+    private final Clock wallClock;
+    private final IntConsumer onDisplay;
+    private final Runnable onPhaseComplete;
+
+    private long accumulatedNanos = 0;   // time of finished running intervals
+    private long runningSinceNanos = 0;  // start of the current interval
+    private boolean running = false;
+    private int lastShownSeconds = -1;
+
+    private long startedAtMillis = -1;   // wall clock at the first start since reset
+    private long endedAtMillis = -1;     // wall clock at the last stop
+    private long lastCheckNanos;
+    private long lastCheckMillis;
+    private SleepPolicy sleepPolicy = SleepPolicy.fromSystemProperty();
+    private LongConsumer onSleep;
+
+    private TimerMode mode = TimerMode.FREE;
+    private PomodoroPhase pomodoroPhase = PomodoroPhase.WORK;
+
+    // Custom durations (configurable)
+    private int customWorkDuration = 30 * 60;   // Default 30 minutes
+    private int customBreakDuration = 10 * 60;  // Default 10 minutes
+
+    private int targetSeconds = 0;
+
+    /**
+     * @param onDisplay       seconds to show (elapsed in FREE mode, remaining otherwise)
+     * @param onPhaseComplete called when a countdown reaches zero, may be null
+     */
+    public TimerEngine(TickScheduler scheduler, LongSupplier nanoClock, IntConsumer onDisplay, Runnable onPhaseComplete) {
+        this(scheduler, nanoClock, Clock.systemDefaultZone(), onDisplay, onPhaseComplete);
+    }
+
+    public TimerEngine(TickScheduler scheduler, LongSupplier nanoClock, Clock wallClock,
+                       IntConsumer onDisplay, Runnable onPhaseComplete) {
+        this.scheduler = scheduler;
+        this.nanoClock = nanoClock;
+        this.wallClock = wallClock;
+        this.onDisplay = onDisplay;
+        this.onPhaseComplete = onPhaseComplete;
+    }
+
+    /**
+     * Called by the scheduler. A late tick simply sees more elapsed time.
+     */
+    public synchronized void tick() {
+        if (!running) {
+            return;
+        }
+        checkClocks();
+        if (!running) {
+            return; // paused by the sleep policy
+        }
+        int seconds = getSecondsPassed();
+        if (mode == TimerMode.FREE) {
+            show(seconds);
+        } else {
+            int remaining = targetSeconds - seconds;
+            if (remaining <= 0) {
+                completePhase();
+            } else {
+                show(remaining);
+            }
+        }
+    }
+
+    // Only push when the visible second changed
+    private void show(int seconds) {
+        if (seconds != lastShownSeconds) {
+            lastShownSeconds = seconds;
+            onDisplay.accept(seconds);
+        }
+    }
+
+    private void completePhase() {
+        stop();
+        // A stall may have carried us past the end; the phase lasted exactly its target
+        accumulatedNanos = targetSeconds * 1_000_000_000L;
+        if (onPhaseComplete != null) {
+            onPhaseComplete.run();
+        }
+    }
+
+    /**
+     * Compare how far both clocks moved since the last check
+     */
+    private void checkClocks() {
+        long nowNanos = nanoClock.getAsLong();
+        long nowMillis = wallClock.millis();
+        long monoGap = nowNanos - lastCheckNanos;
+        long wallGap = (nowMillis - lastCheckMillis) * 1_000_000L;
+        long beforeGapMillis = lastCheckMillis;
+        lastCheckNanos = nowNanos;
+        lastCheckMillis = nowMillis;
+
+        if (wallGap - monoGap > SLEEP_THRESHOLD_NANOS) {
+            // Linux and macOS stop the monotonic clock during sleep: only the wall clock moved
+            handleSleep(false, monoGap, wallGap - monoGap, beforeGapMillis);
+        } else if (MONOTONIC_COUNTS_SLEEP && monoGap > SLEEP_THRESHOLD_NANOS) {
+            // Windows keeps counting, so a long gap on both clocks is the only sign of a sleep
+            handleSleep(true, monoGap, monoGap, beforeGapMillis);
+        } else if (Math.abs(wallGap - monoGap) > JUMP_THRESHOLD_NANOS) {
+            // The wall clock was wrong when the start was read; elapsed time is unaffected
+            startedAtMillis += (wallGap - monoGap) / 1_000_000L;
+        }
+    }
+
+    private void handleSleep(boolean monoCounted, long monoGap, long sleptNanos, long beforeGapMillis) {
+        if (sleepPolicy == SleepPolicy.KEEP) {
+            if (!monoCounted) {
+                runningSinceNanos -= sleptNanos;
+            }
+        } else {
+            // Up to one tick of awake time before the sleep is dropped with the gap
+            if (monoCounted) {
+                runningSinceNanos += monoGap;
+            }
+            if (sleepPolicy == SleepPolicy.PAUSE) {
+                stop();
+                endedAtMillis = beforeGapMillis;
+            }
+        }
+        if (onSleep != null) {
+            onSleep.accept(sleptNanos);
+        }
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            runningSinceNanos = nanoClock.getAsLong();
+            lastCheckNanos = runningSinceNanos;
+            lastCheckMillis = wallClock.millis();
+            if (startedAtMillis < 0) {
+                startedAtMillis = lastCheckMillis;
+            }
+            endedAtMillis = -1;
+            scheduler.start(this::tick);
+        }
+    }
+
+    public synchronized void stop() {
+        scheduler.stop();
+        if (running) {
+            checkClocks();
+        }
+        if (running) {
+            accumulatedNanos += nanoClock.getAsLong() - runningSinceNanos;
+            running = false;
+            endedAtMillis = wallClock.millis();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized void reset() {
+        scheduler.stop();
+        running = false;
+        accumulatedNanos = 0;
+        startedAtMillis = -1;
+        endedAtMillis = -1;
+
+        if (mode == TimerMode.POMODORO) {
+            targetSeconds = (pomodoroPhase == PomodoroPhase.WORK)
+                ? POMODORO_WORK_DURATION
+                : POMODORO_BREAK_DURATION;
+        } else if (mode == TimerMode.CUSTOM) {
+            targetSeconds = (pomodoroPhase == PomodoroPhase.WORK)
+                ? customWorkDuration
+                : customBreakDuration;
+        } else {
+            targetSeconds = 0;
+        }
+        lastShownSeconds = targetSeconds;
+        onDisplay.accept(targetSeconds);
+    }
+
+    /**
+     * Put back a paused session in the current mode, e.g. from a checkpoint after a crash
+     */
+    public synchronized void restore(PomodoroPhase phase, long elapsedNanos, long startedAtMillis) {
+        this.pomodoroPhase = phase;
+        reset();
+        accumulatedNanos = elapsedNanos;
+        this.startedAtMillis = startedAtMillis;
+        int seconds = getSecondsPassed();
+        show(mode == TimerMode.FREE ? seconds : Math.max(0, targetSeconds - seconds));
+    }
+
+    /**
+     * Whole seconds of running time since the last reset
+     */
+    public synchronized int getSecondsPassed() {
+        return (int) (getElapsedNanos() / 1_000_000_000L);
+    }
+
+    public synchronized long getElapsedNanos() {
+        long elapsed = accumulatedNanos;
+        if (running) {
+            elapsed += nanoClock.getAsLong() - runningSinceNanos;
+        }
+        return elapsed;
+    }
+
+    /**
+     * Wall-clock instant of the first start since the last reset (null if not started)
+     */
+    public synchronized Instant getStartedAt() {
+        return startedAtMillis < 0 ? null : Instant.ofEpochMilli(startedAtMillis);
+    }
+
+    /**
+     * Wall-clock instant of the last stop, the current time while running (null if never stopped)
+     */
+    public synchronized Instant getEndedAt() {
+        if (running) {
+            return wallClock.instant();
+        }
+        return endedAtMillis < 0 ? null : Instant.ofEpochMilli(endedAtMillis);
+    }
+
+    public synchronized void setSleepPolicy(SleepPolicy sleepPolicy) {
+        this.sleepPolicy = sleepPolicy;
+    }
+
+    public synchronized SleepPolicy getSleepPolicy() {
+        return sleepPolicy;
+    }
+
+    /**
+     * Called on the tick thread with how long the computer slept; check isRunning() for PAUSE
+     */
+    public synchronized void setOnSleep(LongConsumer onSleep) {
+        this.onSleep = onSleep;
+    }
+
+    /**
+     * Length of the current countdown phase (0 in FREE mode)
+     */
+    public synchronized int getTargetSeconds() {
+        return targetSeconds;
+    }
+
+    // Timer modes
+    public synchronized void setMode(TimerMode mode) {
+        this.mode = mode;
+        reset();
+    }
+
+    public synchronized TimerMode getMode() {
+        return mode;
+    }
+
+    public synchronized void setPomodoroPhase(PomodoroPhase phase) {
+        this.pomodoroPhase = phase;
+        reset();
+    }
+
+    public synchronized PomodoroPhase getPomodoroPhase() {
+        return pomodoroPhase;
+    }
+
+    // Switch to next Pomodoro phase
+    public synchronized void nextPomodoroPhase() {
+        if (pomodoroPhase == PomodoroPhase.WORK) {
+            setPomodoroPhase(PomodoroPhase.BREAK);
+        } else {
+            setPomodoroPhase(PomodoroPhase.WORK);
+        }
+    }
+
+    // Set custom time (in minutes)
+    public synchronized void setCustomWorkMinutes(int minutes) {
+        this.customWorkDuration = minutes * 60;
+        if (mode == TimerMode.CUSTOM && pomodoroPhase == PomodoroPhase.WORK) {
+            reset();
+        }
+    }
+
+    public synchronized void setCustomBreakMinutes(int minutes) {
+        this.customBreakDuration = minutes * 60;
+        if (mode == TimerMode.CUSTOM && pomodoroPhase == PomodoroPhase.BREAK) {
+            reset();
+        }
+    }
+
+    public synchronized int getCustomWorkMinutes() {
+        return customWorkDuration / 60;
+    }
+
+    public synchronized int getCustomBreakMinutes() {
+        return customBreakDuration / 60;
+    }
+}
@@ -0,0 +1,7 @@
+package lablabu.service;
+
+public enum TimerMode {
+    FREE,       // Free timer (counts up)
+    POMODORO,   // Pomodoro (25 min work, 5 min break)
+    CUSTOM      // Custom timer
+}
@@ -0,0 +1,179 @@
+package lablabu.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Many TimerEngines, each bound to a category, driven by one TickScheduler and one TimingWheel.
+ *
+ * A running timer only has one wheel entry: its next whole-second boundary. When it fires the
+ * engine repaints (and completes its phase if the countdown reached zero) and the next boundary
+ * is scheduled. Each driver tick therefore costs one wakeup plus the timers whose second changed.
+ *
+ * Callbacks run on the driver's thread. From any other thread, control timers through
+ * PooledTimer.start()/stop() (they take the pool lock) rather than through the engine directly.
+ */
+public class TimerPool {
+    private static final long SECOND = 1_000_000_000L;
+
+    public final class PooledTimer {
+        private final String category;
+        private final TimerEngine engine;
+        private TimingWheel.Entry<PooledTimer> nextSecond;
+        private Runnable tick;
+
+        private PooledTimer(String category, TickScheduler scheduler, IntConsumer onDisplay, Runnable onPhaseComplete) {
+            this.category = category;
+            this.engine = new TimerEngine(scheduler, nanoClock, wallClock, onDisplay, onPhaseComplete);
+        }
+
+        public String getCategory() { return category; }
+        public TimerEngine getEngine() { return engine; }
+
+        public void start() {
+            synchronized (TimerPool.this) {
+                engine.start();
+            }
+        }
+
+        public void stop() {
+            synchronized (TimerPool.this) {
+                engine.stop();
+            }
+        }
+    }
+
+    private final TickScheduler driver;
+    private final LongSupplier nanoClock;
+    private final Clock wallClock;
+    private final TimingWheel<PooledTimer> wheel;
+    private final List<PooledTimer> timers = new ArrayList<>();
+    private final List<PooledTimer> expired = new ArrayList<>();
+    private int running = 0;
+
+    /**
+     * @param tickMillis how often the driver calls the pool; also the wheel's resolution
+     */
+    public TimerPool(TickScheduler driver, LongSupplier nanoClock, long tickMillis) {
+        this(driver, nanoClock, Clock.systemDefaultZone(), tickMillis);
+    }
+
+    public TimerPool(TickScheduler driver, LongSupplier nanoClock, Clock wallClock, long tickMillis) {
+        this.driver = driver;
+        this.nanoClock = nanoClock;
+        this.wallClock = wallClock;
+        this.wheel = new TimingWheel<>(tickMillis * 1_000_000L, 512, nanoClock.getAsLong());
+    }
+
+    /**
+     * Create a stopped timer for a category. Set the mode on its engine, then call start().
+     */
+    public synchronized PooledTimer create(String category, IntConsumer onDisplay, Runnable onPhaseComplete) {
+        PooledTimer[] holder = new PooledTimer[1];
+        TickScheduler scheduler = new TickScheduler() {
+            @Override
+            public void start(Runnable tick) {
+                register(holder[0], tick);
+            }
+
+            @Override
+            public void stop() {
+                unregister(holder[0]);
+            }
+        };
+        holder[0] = new PooledTimer(category, scheduler, onDisplay, onPhaseComplete);
+        timers.add(holder[0]);
+        return holder[0];
+    }
+
+    public synchronized void remove(PooledTimer timer) {
+        timer.engine.stop();
+        timers.remove(timer);
+    }
+
+    public synchronized List<PooledTimer> getTimers() {
+        return Collections.unmodifiableList(new ArrayList<>(timers));
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Called by the driver
+     */
+    synchronized void onDriverTick() {
+        long now = nanoClock.getAsLong();
+        expired.clear();
+        wheel.advance(now, expired::add);
+        // A late tick can expire several phase ends at once; complete them in the order they ended
+        if (expired.size() > 1) {
+            expired.sort(Comparator.comparingLong(timer -> dueNanos(timer, now)));
+        }
+        for (PooledTimer timer : expired) {
+            fire(timer);
+        }
+    }
+
+    // When the timer's event happened: the end of its phase if the countdown is over, else its second boundary
+    private long dueNanos(PooledTimer timer, long now) {
+        int target = timer.engine.getTargetSeconds();
+        if (target > 0) {
+            long over = timer.engine.getElapsedNanos() - target * SECOND;
+            if (over >= 0) {
+                return now - over;
+            }
+        }
+        return timer.nextSecond.getDeadlineNanos();
+    }
+
+    private void fire(PooledTimer timer) {
+        timer.nextSecond = null;
+        Runnable tick = timer.tick;
+        if (tick == null) {
+            return;
+        }
+        tick.run();
+        // The engine may have stopped itself (phase complete) or been restarted by the callback
+        if (timer.tick != null && timer.nextSecond == null) {
+            scheduleNextSecond(timer);
+        }
+    }
+
+    private void register(PooledTimer timer, Runnable tick) {
+        if (timer.tick == null) {
+            running++;
+            if (running == 1) {
+                driver.start(this::onDriverTick);
+            }
+        }
+        timer.tick = tick;
+        wheel.cancel(timer.nextSecond);
+        scheduleNextSecond(timer);
+    }
+
+    private void unregister(PooledTimer timer) {
+        if (timer == null || timer.tick == null) {
+            return;
+        }
+        timer.tick = null;
+        wheel.cancel(timer.nextSecond);
+        timer.nextSecond = null;
+        running--;
+        if (running == 0) {
+            driver.stop();
+        }
+    }
+
+    private void scheduleNextSecond(PooledTimer timer) {
+        long now = nanoClock.getAsLong();
+        long elapsed = timer.engine.getElapsedNanos();
+        long untilNextSecond = SECOND - Math.floorMod(elapsed, SECOND);
+        timer.nextSecond = wheel.schedule(timer, now + untilNextSecond);
+    }
+}
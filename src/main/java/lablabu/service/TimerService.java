@@ -1,177 +1,122 @@
 package lablabu.service;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
+/**
+ * JavaFX front of TimerEngine: ticks with a Timeline and formats the display as HH:MM:SS
+ */
 public class TimerService {
-    public enum TimerMode {
-        FREE,       // Free timer (counts up)
-        POMODORO,   // Pomodoro (25 min work, 5 min break)
-        CUSTOM      // Custom timer
-    }
-
-    public enum PomodoroPhase {
-        WORK,       // Work phase
-        BREAK       // Break phase
-    }
-
-    private Timeline timeline;
-    private int secondsPassed = 0;
-    private Consumer<String> onTick;
-    private Runnable onPhaseComplete;
-
-    private TimerMode mode = TimerMode.FREE;
-    private PomodoroPhase pomodoroPhase = PomodoroPhase.WORK;
+    // Repaint interval; elapsed time always comes from the monotonic clock, not from counting frames
+    private static final double REPAINT_MILLIS = 200;
 
-    // Pomodoro durations (constants - don't change)
-    private static final int POMODORO_WORK_DURATION = 25 * 60;  // 25 minutes
-    private static final int POMODORO_BREAK_DURATION = 5 * 60;   // 5 minutes
-
-    // Custom durations (configurable)
-    private int customWorkDuration = 30 * 60;   // Default 30 minutes
-    private int customBreakDuration = 10 * 60;  // Default 10 minutes
-
-    private int targetSeconds = 0;
+    private final TimerEngine engine;
+    private final Consumer<String> onTick;
+    private final TimeFormatter formatter = new TimeFormatter();
 
     public TimerService(Consumer<String> onTick) {
-        this.onTick = onTick;
-        setupTimeline();
+        this(onTick, null);
     }
 
     public TimerService(Consumer<String> onTick, Runnable onPhaseComplete) {
-        this.onTick = onTick;
-        this.onPhaseComplete = onPhaseComplete;
-        setupTimeline();
+        this(onTick, onPhaseComplete, System::nanoTime);
     }
 
-    private void setupTimeline() {
-        timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> tick()));
-        timeline.setCycleCount(Timeline.INDEFINITE);
+    public TimerService(Consumer<String> onTick, Runnable onPhaseComplete, LongSupplier nanoClock) {
+        this(onTick, onPhaseComplete, nanoClock, Clock.systemDefaultZone());
     }
 
-    private void tick() {
-        if (mode == TimerMode.FREE) {
-            // Free mode - count up
-            secondsPassed++;
-            onTick.accept(formatTime(secondsPassed));
-        } else {
-            // Pomodoro and Custom modes - count down
-            secondsPassed++;
-            int remaining = targetSeconds - secondsPassed;
-
-            if (remaining <= 0) {
-                completePhase();
-            } else {
-                onTick.accept(formatTime(remaining));
-            }
-        }
+    /**
+     * nanoClock must be monotonic (System.nanoTime or SimulatedClock::nanoTime);
+     * wallClock stamps the session's start and end
+     */
+    public TimerService(Consumer<String> onTick, Runnable onPhaseComplete, LongSupplier nanoClock, Clock wallClock) {
+        this.onTick = onTick;
+        this.engine = new TimerEngine(new FxTickScheduler(REPAINT_MILLIS), nanoClock, wallClock,
+                seconds -> this.onTick.accept(formatter.format(seconds)), onPhaseComplete);
     }
 
-    private void completePhase() {
-        stop();
-        if (onPhaseComplete != null) {
-            onPhaseComplete.run();
-        }
+    public TimerEngine getEngine() {
+        return engine;
     }
 
     public void start() {
-        timeline.play();
+        engine.start();
     }
 
     public void stop() {
-        timeline.stop();
+        engine.stop();
+    }
+
+    public boolean isRunning() {
+        return engine.isRunning();
     }
 
     public void reset() {
-        timeline.stop();
-        secondsPassed = 0;
-
-        if (mode == TimerMode.POMODORO) {
-            targetSeconds = (pomodoroPhase == PomodoroPhase.WORK)
-                ? POMODORO_WORK_DURATION
-                : POMODORO_BREAK_DURATION;
-            onTick.accept(formatTime(targetSeconds));
-        } else if (mode == TimerMode.CUSTOM) {
-            targetSeconds = (pomodoroPhase == PomodoroPhase.WORK)
-                ? customWorkDuration
-                : customBreakDuration;
-            onTick.accept(formatTime(targetSeconds));
-        } else {
-            onTick.accept("00:00:00");
-        }
+        engine.reset();
+    }
+
+    public void restore(PomodoroPhase phase, long elapsedNanos, long startedAtMillis) {
+        engine.restore(phase, elapsedNanos, startedAtMillis);
     }
 
+    /**
+     * Whole seconds of running time since the last reset
+     */
     public int getSecondsPassed() {
-        return secondsPassed;
+        return engine.getSecondsPassed();
+    }
+
+    public long getElapsedNanos() {
+        return engine.getElapsedNanos();
+    }
+
+    public Instant getStartedAt() {
+        return engine.getStartedAt();
     }
 
-    // Format time to HH:MM:SS
-    private String formatTime(int totalSeconds) {
-        int h = totalSeconds / 3600;
-        int m = (totalSeconds % 3600) / 60;
-        int s = totalSeconds % 60;
-        return String.format("%02d:%02d:%02d", h, m, s);
+    public Instant getEndedAt() {
+        return engine.getEndedAt();
     }
 
     // Timer modes
     public void setMode(TimerMode mode) {
-        this.mode = mode;
-        reset();
+        engine.setMode(mode);
     }
 
     public TimerMode getMode() {
-        return mode;
+        return engine.getMode();
     }
 
     public void setPomodoroPhase(PomodoroPhase phase) {
-        this.pomodoroPhase = phase;
-        if (mode == TimerMode.POMODORO) {
-            targetSeconds = (phase == PomodoroPhase.WORK)
-                ? POMODORO_WORK_DURATION
-                : POMODORO_BREAK_DURATION;
-        } else if (mode == TimerMode.CUSTOM) {
-            targetSeconds = (phase == PomodoroPhase.WORK)
-                ? customWorkDuration
-                : customBreakDuration;
-        }
-        reset();
+        engine.setPomodoroPhase(phase);
     }
 
     public PomodoroPhase getPomodoroPhase() {
-        return pomodoroPhase;
+        return engine.getPomodoroPhase();
     }
 
     // Switch to next Pomodoro phase
     public void nextPomodoroPhase() {
-        if (pomodoroPhase == PomodoroPhase.WORK) {
-            setPomodoroPhase(PomodoroPhase.BREAK);
-        } else {
-            setPomodoroPhase(PomodoroPhase.WORK);
-        }
+        engine.nextPomodoroPhase();
     }
 
     // Set custom time (in minutes)
     public void setCustomWorkMinutes(int minutes) {
-        this.customWorkDuration = minutes * 60;
-        if (mode == TimerMode.CUSTOM && pomodoroPhase == PomodoroPhase.WORK) {
-            reset();
-        }
+        engine.setCustomWorkMinutes(minutes);
     }
 
     public void setCustomBreakMinutes(int minutes) {
-        this.customBreakDuration = minutes * 60;
-        if (mode == TimerMode.CUSTOM && pomodoroPhase == PomodoroPhase.BREAK) {
-            reset();
-        }
+        engine.setCustomBreakMinutes(minutes);
     }
 
     public int getCustomWorkMinutes() {
-        return customWorkDuration / 60;
+        return engine.getCustomWorkMinutes();
     }
 
     public int getCustomBreakMinutes() {
-        return customBreakDuration / 60;
+        return engine.getCustomBreakMinutes();
     }
 }
@@ -0,0 +1,135 @@
+package lablabu.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a ring of buckets by tick number.
+ * Scheduling and cancelling are O(1); advancing only visits the buckets of elapsed ticks,
+ * so the cost per tick depends on what expires, not on how many entries are waiting.
+ * Entries that expire in the same advance are delivered in deadline order.
+ *
+ * Not thread-safe; use it from the thread that drives it.
+ */
+public class TimingWheel<T> {
+
+    public static final class Entry<T> {
+        private final T item;
+        private final long deadlineNanos;
+        private final long tick;
+        private Entry<T> prev;
+        private Entry<T> next;
+        private int bucket = -1; // -1 when not scheduled
+
+        private Entry(T item, long deadlineNanos, long tick) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+            this.tick = tick;
+        }
+
+        public T getItem() { return item; }
+        public long getDeadlineNanos() { return deadlineNanos; }
+        public boolean isScheduled() { return bucket >= 0; }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Entry<T>[] buckets;
+    private final int mask;
+    private long currentTick = 0; // last processed tick
+    private int size = 0;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickNanos, int wheelSize, long startNanos) {
+        int n = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+        this.buckets = (Entry<T>[]) new Entry[n];
+        this.mask = n - 1;
+    }
+
+    public Entry<T> schedule(T item, long deadlineNanos) {
+        long tick = Math.max(currentTick + 1, ceilDiv(deadlineNanos - startNanos, tickNanos));
+        Entry<T> entry = new Entry<>(item, deadlineNanos, tick);
+        link(entry, (int) (tick & mask));
+        size++;
+        return entry;
+    }
+
+    public void cancel(Entry<T> entry) {
+        if (entry != null && entry.bucket >= 0) {
+            unlink(entry);
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Expire everything due up to now and pass it to the consumer in deadline order.
+     * The consumer may schedule new entries; they land in later ticks.
+     */
+    public void advance(long nowNanos, Consumer<T> onExpired) {
+        long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+        if (targetTick <= currentTick) {
+            return;
+        }
+
+        List<Entry<T>> expired = new ArrayList<>();
+        // After a long stall every bucket is visited once instead of once per missed tick
+        long ticks = Math.min(targetTick - currentTick, buckets.length);
+        for (long t = targetTick - ticks + 1; t <= targetTick; t++) {
+            Entry<T> entry = buckets[(int) (t & mask)];
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                if (entry.tick <= targetTick) {
+                    unlink(entry);
+                    size--;
+                    expired.add(entry);
+                }
+                entry = next;
+            }
+        }
+        currentTick = targetTick;
+
+        expired.sort(Comparator.comparingLong(e -> e.deadlineNanos));
+        for (Entry<T> entry : expired) {
+            onExpired.accept(entry.item);
+        }
+    }
+
+    private void link(Entry<T> entry, int bucket) {
+        entry.bucket = bucket;
+        entry.prev = null;
+        entry.next = buckets[bucket];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[bucket] = entry;
+    }
+
+    private void unlink(Entry<T> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.bucket = -1;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,199 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind wrapper around StorageService.
+ * Callers (the FX thread) only build a small journal record and hand it to a background writer.
+ * Sessions are written in order; settings changes are coalesced so a burst of edits costs one write.
+ */
+public class WriteBehindStorage {
+    private final StorageService storage;
+    private final ExecutorService writer;
+    private final Thread shutdownHook;
+
+    private final Object lock = new Object();
+    private final List<JournalRecord> pendingSessions = new ArrayList<>();
+    private JournalRecord pendingSettings;
+    private boolean drainScheduled = false;
+    private boolean closed = false;
+
+    // Metrics
+    private volatile long recordsWritten = 0;
+    private volatile long settingsCoalesced = 0;
+    private volatile long lastWriteNanos = 0;
+    private volatile long maxWriteNanos = 0;
+    private volatile long maxEnqueueNanos = 0;
+
+    public WriteBehindStorage(StorageService storage) {
+        this.storage = storage;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Flush if the JVM exits without close() (e.g. Ctrl+C)
+        shutdownHook = new Thread(this::flush, "storage-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Load synchronously (startup only)
+     */
+    public AppState load() {
+        return storage.load();
+    }
+
+    /**
+     * Queue a new session for the journal
+     */
+    public void appendSession(AppState state, Session session) {
+        long start = System.nanoTime();
+        JournalRecord record = JournalRecord.session(state, session);
+        synchronized (lock) {
+            pendingSessions.add(record);
+            scheduleDrain();
+        }
+        recordEnqueue(start);
+    }
+
+    /**
+     * Queue current settings; replaces settings that were not written yet
+     */
+    public void saveSettings(AppState state) {
+        long start = System.nanoTime();
+        JournalRecord record = JournalRecord.settings(state);
+        synchronized (lock) {
+            if (pendingSettings != null) {
+                settingsCoalesced++;
+            }
+            pendingSettings = record;
+            scheduleDrain();
+        }
+        recordEnqueue(start);
+    }
+
+    /**
+     * Block until everything queued so far is on disk
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // Already closed - nothing left to flush
+        }
+    }
+
+    /**
+     * Flush and stop the writer thread
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // JVM is already shutting down
+        }
+    }
+
+    /**
+     * Storage problem the user should be told about, null if none
+     */
+    public String getProblem() {
+        return storage.getProblem();
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pendingSessions.size() + (pendingSettings != null ? 1 : 0);
+        }
+    }
+
+    public long getRecordsWritten() { return recordsWritten; }
+    public long getSettingsCoalesced() { return settingsCoalesced; }
+    public double getLastWriteMillis() { return lastWriteNanos / 1_000_000.0; }
+    public double getMaxWriteMillis() { return maxWriteNanos / 1_000_000.0; }
+
+    /**
+     * Longest time a caller (the UI thread) spent handing off a save
+     */
+    public double getMaxEnqueueMillis() { return maxEnqueueNanos / 1_000_000.0; }
+
+    public String getStatsSummary() {
+        return String.format("written=%d, coalesced=%d, queue=%d, lastWrite=%.2fms, maxWrite=%.2fms, maxEnqueue=%.3fms",
+                recordsWritten, settingsCoalesced, getQueueDepth(),
+                getLastWriteMillis(), getMaxWriteMillis(), getMaxEnqueueMillis());
+    }
+
+    // Must hold lock
+    private void scheduleDrain() {
+        if (!drainScheduled && !closed) {
+            drainScheduled = true;
+            writer.execute(this::drain);
+        }
+    }
+
+    private void recordEnqueue(long start) {
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > maxEnqueueNanos) {
+            maxEnqueueNanos = elapsed;
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<JournalRecord> batch;
+            synchronized (lock) {
+                if (pendingSessions.isEmpty() && pendingSettings == null) {
+                    drainScheduled = false;
+                    return;
+                }
+                batch = new ArrayList<>(pendingSessions);
+                pendingSessions.clear();
+                if (pendingSettings != null) {
+                    batch.add(pendingSettings);
+                    pendingSettings = null;
+                }
+            }
+
+            for (JournalRecord record : batch) {
+                long start = System.nanoTime();
+                try {
+                    storage.append(record);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+                long elapsed = System.nanoTime() - start;
+                lastWriteNanos = elapsed;
+                if (elapsed > maxWriteNanos) {
+                    maxWriteNanos = elapsed;
+                }
+                recordsWritten++;
+            }
+        }
+    }
+}
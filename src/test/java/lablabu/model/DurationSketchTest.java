@@ -0,0 +1,145 @@
+package lablabu.model;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurationSketchTest {
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+
+    private static long[] sample(int n, LongSupplier lengths) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = lengths.getAsLong();
+        }
+        return values;
+    }
+
+    // Every quantile within RELATIVE_ACCURACY of the exact length at rank floor(q * (n - 1))
+    private static void assertWithinBounds(long[] values) {
+        DurationSketch sketch = new DurationSketch();
+        for (long value : values) {
+            sketch.add(value);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            long exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            if (exact < 1) {
+                assertEquals(0, estimate, "q=" + q);
+            } else {
+                double error = Math.abs(estimate - exact) / exact;
+                assertTrue(error <= DurationSketch.RELATIVE_ACCURACY + 1e-12,
+                        "q=" + q + " exact=" + exact + " estimate=" + estimate);
+            }
+        }
+        assertEquals(values.length, sketch.getCount());
+    }
+
+    @Test
+    void uniformLengths() {
+        Random random = new Random(1);
+        assertWithinBounds(sample(50_000, () -> 60 + random.nextInt(3 * 3600)));
+    }
+
+    @Test
+    void logNormalLengths() {
+        Random random = new Random(2);
+        assertWithinBounds(sample(50_000, () -> Math.round(Math.exp(7 + 1.2 * random.nextGaussian()))));
+    }
+
+    @Test
+    void pomodoroSpikesWithShortAbandonedSessions() {
+        Random random = new Random(3);
+        assertWithinBounds(sample(20_000, () -> {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                return 25 * 60;
+            } else if (kind < 8) {
+                return 5 * 60;
+            }
+            return random.nextInt(90);  // includes sub-second sessions
+        }));
+    }
+
+    @Test
+    void fullDayRangeAndSmallSamples() {
+        Random random = new Random(4);
+        assertWithinBounds(sample(5_000, () -> 1 + random.nextInt(24 * 3600)));
+        assertWithinBounds(new long[] {42});
+        assertWithinBounds(new long[] {0, 86_400});
+        assertWithinBounds(new long[] {1, 2, 3, 4, 5, 6, 7});
+    }
+
+    @Test
+    void emptySketchReturnsZero() {
+        DurationSketch sketch = new DurationSketch();
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(0, sketch.getCount());
+    }
+
+    @Test
+    void mergeEqualsOneSketchOfAllValues() {
+        Random random = new Random(5);
+        DurationSketch all = new DurationSketch();
+        DurationSketch merged = new DurationSketch();
+        for (int part = 0; part < 4; part++) {
+            DurationSketch sketch = new DurationSketch();
+            // Parts cover different ranges so the bucket arrays have to grow in both directions
+            long offset = new long[] {3600, 0, 20_000, 10}[part];
+            for (int i = 0; i < 2_000; i++) {
+                long value = offset + random.nextInt(5_000);
+                sketch.add(value);
+                all.add(value);
+            }
+            merged.merge(sketch);
+        }
+        merged.merge(new DurationSketch());
+
+        assertEquals(all.getCount(), merged.getCount());
+        assertEquals(all.zeroCount(), merged.zeroCount());
+        assertEquals(all.minIndex(), merged.minIndex());
+        assertArrayEquals(all.counts(), merged.counts());
+        for (double q : QUANTILES) {
+            assertEquals(all.quantile(q), merged.quantile(q));
+        }
+    }
+
+    @Test
+    void jsonRoundTrip() {
+        Random random = new Random(6);
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(random.nextInt(7200));
+        }
+        Gson gson = new Gson();
+        DurationSketch restored = gson.fromJson(gson.toJson(sketch), DurationSketch.class);
+
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertEquals(sketch.zeroCount(), restored.zeroCount());
+        assertEquals(sketch.minIndex(), restored.minIndex());
+        assertArrayEquals(sketch.counts(), restored.counts());
+        assertEquals(sketch.quantile(0.9), restored.quantile(0.9));
+    }
+
+    @Test
+    void jsonSkipsUnknownFieldsAndReadsNull() {
+        DurationSketch restored = new Gson().fromJson(
+                "{\"minIndex\":2,\"extra\":[1,2],\"counts\":[3,0,1],\"zeroCount\":null,\"count\":4}",
+                DurationSketch.class);
+        assertEquals(2, restored.minIndex());
+        assertArrayEquals(new long[] {3, 0, 1}, restored.counts());
+        assertEquals(0, restored.zeroCount());
+        assertEquals(4, restored.getCount());
+        assertNull(new Gson().fromJson("null", DurationSketch.class));
+    }
+}
@@ -0,0 +1,63 @@
+package lablabu.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AtomicFilesTest {
+    @TempDir
+    Path directory;
+
+    private static void write(Path target, Path backup, String text) throws IOException {
+        AtomicFiles.write(target, backup, out -> out.write(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void writeReplacesTargetAndKeepsPreviousAsBackup() throws IOException {
+        Path target = directory.resolve("data.json");
+        Path backup = directory.resolve("data.json.bak");
+        write(target, backup, "first");
+        assertEquals("first", Files.readString(target));
+        assertFalse(Files.exists(backup));
+
+        write(target, backup, "second");
+        assertEquals("second", Files.readString(target));
+        assertEquals("first", Files.readString(backup));
+        assertFalse(Files.exists(directory.resolve("data.json.tmp")));
+    }
+
+    @Test
+    void failedWriteLeavesTargetAndBackupAlone() throws IOException {
+        Path target = directory.resolve("data.json");
+        Path backup = directory.resolve("data.json.bak");
+        write(target, backup, "first");
+        write(target, backup, "second");
+
+        assertThrows(IOException.class, () -> AtomicFiles.write(target, backup, out -> {
+            out.write("half a fi".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+        assertEquals("second", Files.readString(target));
+        assertEquals("first", Files.readString(backup));
+    }
+
+    @Test
+    void moveReplacesExistingFile() throws IOException {
+        Path journal = directory.resolve("data.journal");
+        Path old = directory.resolve("data.journal.old");
+        Files.writeString(journal, "new");
+        Files.writeString(old, "old");
+
+        AtomicFiles.move(journal, old);
+        assertFalse(Files.exists(journal));
+        assertEquals("new", Files.readString(old));
+    }
+}
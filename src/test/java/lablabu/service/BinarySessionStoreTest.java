@@ -0,0 +1,56 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinarySessionStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        List<Session> sessions = List.of(
+                new Session("Math", 1500, "2024-03-01", "2024-03-01T09:00:00", "2024-03-01T09:25:00"),
+                new Session("Code", 61, "2024-03-01", "2024-03-01T23:59:30.125", "2024-03-02T00:00:31.1254"),
+                new Session(null, 0, (String) null, null, null),
+                new Session("Read", 3600, "1969-12-31", "1969-12-31T22:00:00.000000001", null));
+        Path file = directory.resolve("sessions.bin");
+        for (Session session : sessions) {
+            assertTrue(BinarySessionStore.canEncode(session));
+        }
+        BinarySessionStore.write(file, sessions);
+        List<Session> read = BinarySessionStore.read(file);
+
+        assertEquals(sessions.size(), read.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            Session expected = sessions.get(i);
+            Session actual = read.get(i);
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getDurationSeconds(), actual.getDurationSeconds());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+            assertEquals(expected.getEndTime(), actual.getEndTime());
+            assertEquals(expected.getEpochDay(), actual.getEpochDay());
+            assertEquals(expected.getStartNanos(), actual.getStartNanos());
+        }
+    }
+
+    @Test
+    void nonCanonicalTextIsNotEncoded() {
+        assertFalse(BinarySessionStore.canEncode(new Session("Math", 60, "2024-3-1", null, null)));
+        assertFalse(BinarySessionStore.canEncode(
+                new Session("Math", 60, "2024-03-01", "2024-03-01T09:00", null)));
+        assertFalse(BinarySessionStore.canEncode(
+                new Session("Math", 60, "2024-03-01", "2024-03-01T09:00:00.500", null)));
+        assertFalse(BinarySessionStore.canEncode(new Session("Math", 60, "yesterday", null, null)));
+    }
+}
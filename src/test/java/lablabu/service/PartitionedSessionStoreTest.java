@@ -0,0 +1,114 @@
+package lablabu.service;
+
+import lablabu.model.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedSessionStoreTest {
+    @TempDir
+    Path directory;
+
+    private static String partitionOf(String date) {
+        return PartitionedSessionStore.partitionOf(new Session("Math", 60, date, null, null));
+    }
+
+    @Test
+    void partitionIsTheMonthOfTheSessionDay() {
+        assertEquals("2024-03", partitionOf("2024-03-01"));
+        assertEquals("1999-12", partitionOf("1999-12-31"));
+        assertEquals("0001-01", partitionOf("0001-01-01"));
+    }
+
+    @Test
+    void oddDatesAreUndated() {
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf(null));
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf("2024-3-1"));
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf("24-03"));
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf(""));
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf("yesterday"));
+        assertEquals(PartitionedSessionStore.UNDATED, partitionOf("+12024-01-15"));
+    }
+
+    private static Session session(String date, int hour) {
+        String start = String.format("%sT%02d:15:30", date, hour);
+        return new Session("Math", 1800, date, start, String.format("%sT%02d:45:30", date, hour));
+    }
+
+    private static List<String> startTimes(List<Session> sessions) {
+        return sessions.stream().map(Session::getStartTime).sorted().collect(Collectors.toList());
+    }
+
+    // Every field of every session, in a stable order
+    private static List<String> fields(List<Session> sessions) {
+        return sessions.stream()
+                .map(session -> session.getCategory() + " " + session.getDurationSeconds() + " " + session.getDate()
+                        + " " + session.getStartTime() + " " + session.getEndTime())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private Set<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        }
+    }
+
+    @Test
+    void monthsRoundTripAndSplitAtTheEagerMonth() throws IOException {
+        PartitionedSessionStore store = new PartitionedSessionStore(directory);
+        List<Session> sessions = List.of(
+                session("2023-12-31", 23), session("2024-01-05", 9), session("2024-01-20", 14),
+                session("2024-02-01", 0), session("2024-03-10", 8),
+                new Session("Math", 60, (String) null, null, null));
+        Map<String, String> partitions = store.writeAll(sessions, 7);
+        assertEquals(Set.of("2023-12", "2024-01", "2024-02", "2024-03", PartitionedSessionStore.UNDATED),
+                partitions.keySet());
+        assertEquals(Set.copyOf(partitions.values()), files());
+
+        Set<String> unreadable = new HashSet<>();
+        YearMonth eagerFrom = YearMonth.of(2024, 2);
+        List<Session> recent = store.readFrom(partitions, eagerFrom, unreadable);
+        List<Session> older = store.readBefore(partitions, eagerFrom, unreadable);
+        assertTrue(unreadable.isEmpty());
+        // Undated sessions are always read with the recent months
+        assertEquals(3, recent.size());
+        assertEquals(List.of("2023-12-31T23:15:30", "2024-01-05T09:15:30", "2024-01-20T14:15:30"), startTimes(older));
+
+        List<Session> all = new ArrayList<>(older);
+        all.addAll(recent);
+        assertEquals(fields(sessions), fields(all));
+    }
+
+    @Test
+    void appendRewritesOnlyTheMonthsThatChanged() throws IOException {
+        PartitionedSessionStore store = new PartitionedSessionStore(directory);
+        Map<String, String> partitions = store.writeAll(
+                List.of(session("2024-01-05", 9), session("2024-02-01", 10)), 7);
+
+        Map<String, String> updated = store.append(partitions, List.of(session("2024-02-14", 11)), 9);
+        assertEquals(partitions.get("2024-01"), updated.get("2024-01"));
+        assertEquals("2024-02-9.bin", updated.get("2024-02"));
+        assertEquals(List.of("2024-02-01T10:15:30", "2024-02-14T11:15:30"),
+                startTimes(store.readFrom(updated, YearMonth.of(2024, 2), new HashSet<>())));
+
+        // The old February file is still referenced by the previous generation until it is dropped
+        assertEquals(Set.of("2024-01-7.bin", "2024-02-7.bin", "2024-02-9.bin"), files());
+        store.deleteExcept(new HashSet<>(updated.values()));
+        assertEquals(Set.of("2024-01-7.bin", "2024-02-9.bin"), files());
+    }
+}
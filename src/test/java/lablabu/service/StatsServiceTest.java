@@ -0,0 +1,107 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatsServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T18:00:00Z"), ZoneOffset.UTC);
+    private static final String[] CATEGORIES = {"Math", "Code", "Read", "Piano", null};
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 40_000; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            long duration = random.nextInt(5_400);
+            if (random.nextInt(50) == 0) {
+                sessions.add(new Session(category, duration, (String) null, null, null));
+                continue;
+            }
+            LocalDateTime start = TODAY.minusDays(random.nextInt(400)).atStartOfDay().plusSeconds(random.nextInt(86_400));
+            sessions.add(new Session(category, duration, start.toLocalDate().toString(),
+                    start.toString(), start.plusSeconds(duration).toString()));
+        }
+    }
+
+    private StatsService service(ParallelMode mode) {
+        AppState state = new AppState();
+        state.setSessions(new ArrayList<>(sessions));
+        StatsService stats = new StatsService(state, CLOCK);
+        stats.setParallelMode(mode);
+        return stats;
+    }
+
+    @Test
+    void bulkAndPerSessionIndexingAgreeWithBruteForce() {
+        Map<String, Long> expected = new HashMap<>();
+        for (Session session : sessions) {
+            expected.merge(session.getCategory(), session.getDurationSeconds(), Long::sum);
+        }
+        // NEVER indexes session by session, ALWAYS through SessionAggregate
+        for (ParallelMode mode : new ParallelMode[] {ParallelMode.NEVER, ParallelMode.ALWAYS}) {
+            StatsService stats = service(mode);
+            assertEquals(expected, stats.getCategoryStats(), mode.name());
+            for (String category : CATEGORIES) {
+                assertEquals(expected.get(category).longValue(), stats.getCategoryTotal(category), mode.name());
+            }
+            assertEquals(0, stats.getCategoryTotal("Unknown"));
+        }
+    }
+
+    @Test
+    void categoryQueriesMatchBruteForce() {
+        LocalDate from = TODAY.minusDays(60);
+        long[] daySeconds = new long[61];
+        long[] hourSeconds = new long[24];
+        long[] hourCounts = new long[24];
+        for (Session session : sessions) {
+            String category = session.getCategory();
+            if (session.getDate() == null || !("Math".equals(category) || "Read".equals(category))) {
+                continue;
+            }
+            LocalDate date = LocalDate.parse(session.getDate());
+            if (date.isBefore(from)) {
+                continue;
+            }
+            daySeconds[(int) (date.toEpochDay() - from.toEpochDay())] += session.getDurationSeconds();
+            int hour = LocalDateTime.parse(session.getStartTime()).getHour();
+            hourSeconds[hour] += session.getDurationSeconds();
+            hourCounts[hour]++;
+        }
+
+        for (ParallelMode mode : new ParallelMode[] {ParallelMode.NEVER, ParallelMode.ALWAYS}) {
+            StatsService stats = service(mode);
+            StatsQuery base = StatsQuery.all().between(from, TODAY).categories("Math", "Read", "Unknown");
+
+            List<StatsResult.Group> days = stats.query(base.groupBy(StatsQuery.GroupBy.DAY)).getGroups();
+            assertEquals(daySeconds.length, days.size());
+            for (int i = 0; i < daySeconds.length; i++) {
+                assertEquals(daySeconds[i], days.get(i).getSeconds(), mode + " day " + i);
+            }
+
+            List<StatsResult.Group> hours = stats.query(base.groupBy(StatsQuery.GroupBy.HOUR)).getGroups();
+            for (int hour = 0; hour < 24; hour++) {
+                assertEquals(hourSeconds[hour], hours.get(hour).getSeconds(), mode + " hour " + hour);
+                assertEquals(hourCounts[hour], hours.get(hour).getSessions(), mode + " hour " + hour);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Category;
+import lablabu.model.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageServiceTest {
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2024, 1, 10, 9, 0, 15);
+
+    @TempDir
+    Path directory;
+
+    private Clock clock = Clock.fixed(Instant.parse("2024-02-20T12:00:00Z"), ZoneOffset.UTC);
+    private int sessionCount = 0;
+
+    private StorageService storage() {
+        return new StorageService(true, directory, clock);
+    }
+
+    private Session nextSession() {
+        // Three days apart, so ten sessions cover two months
+        LocalDateTime start = FIRST_START.plusDays(3L * sessionCount++);
+        return new Session("Math", 1500, start.toLocalDate().toString(),
+                start.toString(), start.plusMinutes(25).toString());
+    }
+
+    private void record(StorageService storage, AppState state, int sessions) {
+        for (int i = 0; i < sessions; i++) {
+            Session session = nextSession();
+            state.addSession(session);
+            storage.appendSession(state, session);
+        }
+    }
+
+    private static int reloadedCount(StorageService storage) {
+        AppState state = storage.load();
+        state.loadFullHistory();
+        return state.getSessions().size();
+    }
+
+    private long journalLines(String name) throws IOException {
+        Path journal = directory.resolve(name);
+        return Files.exists(journal) ? Files.readAllLines(journal, StandardCharsets.UTF_8).size() : 0;
+    }
+
+    @Test
+    void appendsGoToTheJournalAndReplayOnLoad() throws IOException {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        storage.save(state);
+        byte[] snapshot = Files.readAllBytes(directory.resolve("data.json"));
+
+        record(storage, state, 3);
+        state.addCategory(new Category("Piano", "#a29bfe"));
+        state.setTheme("light");
+        state.setPomodoroWorkMinutes(45);
+        storage.saveSettings(state);
+
+        // Saving does not touch the snapshot, one journal line per change
+        assertArrayEquals(snapshot, Files.readAllBytes(directory.resolve("data.json")));
+        assertEquals(4, journalLines("data.journal"));
+
+        AppState loaded = storage().load();
+        assertEquals(3, loaded.getSessions().size());
+        assertEquals(state.getSessions().get(2).getStartTime(), loaded.getSessions().get(2).getStartTime());
+        assertNotNull(loaded.getCategoryByName("Piano"));
+        assertEquals("light", loaded.getTheme());
+        assertEquals(45, loaded.getPomodoroWorkMinutes());
+    }
+
+    @Test
+    void journalIsCompactedAtTheThreshold() throws IOException {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, StorageService.COMPACTION_THRESHOLD - 1);
+        assertEquals(StorageService.COMPACTION_THRESHOLD - 1, journalLines("data.journal"));
+        assertFalse(Files.exists(directory.resolve("data.journal.old")));
+
+        record(storage, state, 1);
+        assertEquals(0, journalLines("data.journal"));
+        assertEquals(StorageService.COMPACTION_THRESHOLD, journalLines("data.journal.old"));
+
+        // The next append starts a fresh journal on top of the new snapshot
+        record(storage, state, 1);
+        assertEquals(1, journalLines("data.journal"));
+        assertEquals(StorageService.COMPACTION_THRESHOLD + 1, reloadedCount(storage()));
+    }
+
+    @Test
+    void compactedJournalIsNotReplayedAgain() {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, 10);
+        storage.compact();
+        assertTrue(Files.exists(directory.resolve("data.journal.old")));
+        assertEquals(10, reloadedCount(storage()));
+
+        record(storage, state, 3);
+        storage.compact();
+        assertEquals(13, reloadedCount(storage()));
+        assertEquals(13, reloadedCount(storage()));
+    }
+
+    @Test
+    void recoveryFromBackupDoesNotDuplicateSessions() throws IOException {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, 10);
+        storage.compact();
+        record(storage, state, 4);
+        storage.compact();
+        record(storage, state, 2);
+
+        // data.json.bak + data.journal.old + data.journal is the previous generation
+        Files.writeString(directory.resolve("data.json"), "{\"categories\": [", StandardCharsets.UTF_8);
+        StorageService recovering = storage();
+        assertEquals(16, reloadedCount(recovering));
+        assertNotNull(recovering.getProblem());
+        assertEquals(16, reloadedCount(storage()));
+    }
+
+    @Test
+    void tornTailIsCutOffBeforeTheNextAppend() throws IOException {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, 2);
+        Path journal = directory.resolve("data.journal");
+        long complete = Files.size(journal);
+        // Crash in the middle of the third append
+        Files.writeString(journal, "{\"type\":\"session\",\"seq\":3,\"sess", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        StorageService restarted = storage();
+        AppState loaded = restarted.load();
+        assertEquals(2, loaded.getSessions().size());
+        assertEquals(complete, Files.size(journal));
+
+        record(restarted, loaded, 1);
+        assertEquals(3, journalLines("data.journal"));
+        assertEquals(3, reloadedCount(storage()));
+    }
+
+    @Test
+    void recordsWithoutSequenceAreAppliedOnce() throws IOException {
+        StringBuilder journal = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            Session session = nextSession();
+            journal.append("{\"type\":\"session\",\"session\":{\"category\":\"Math\",\"durationSeconds\":1500,")
+                    .append("\"date\":\"").append(session.getDate())
+                    .append("\",\"startTime\":\"").append(session.getStartTime())
+                    .append("\",\"endTime\":\"").append(session.getEndTime()).append("\"}}\n");
+        }
+        Files.writeString(directory.resolve("data.journal"), journal, StandardCharsets.UTF_8);
+
+        StorageService storage = storage();
+        AppState state = storage.load();
+        assertEquals(3, state.getSessions().size());
+        record(storage, state, 2);
+        assertEquals(5, reloadedCount(storage()));
+
+        storage.compact();
+        assertEquals(5, reloadedCount(storage()));
+    }
+
+    @Test
+    void unreadablePartitionKeepsTheSnapshot() throws IOException {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, 10);
+        storage.compact();
+        byte[] snapshot = Files.readAllBytes(directory.resolve("data.json"));
+        Path january = directory.resolve("sessions").resolve(partitionFile("2024-01"));
+        Path moved = directory.resolve("january.moved");
+        Files.move(january, moved);
+
+        StorageService damaged = storage();
+        AppState partial = damaged.load();
+        partial.loadFullHistory();
+        assertEquals(2, partial.getSessions().size());
+        assertNotNull(damaged.getProblem());
+
+        // New sessions go to the journal only; data.json still points at the missing month
+        record(damaged, partial, 2);
+        damaged.compact();
+        damaged.save(partial);
+        assertArrayEquals(snapshot, Files.readAllBytes(directory.resolve("data.json")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().contains(".corrupt-")));
+        }
+
+        Files.move(moved, january);
+        StorageService restored = storage();
+        assertEquals(12, reloadedCount(restored));
+        assertNull(restored.getProblem());
+    }
+
+    @Test
+    void recentMonthsFollowTheInjectedClock() {
+        StorageService storage = storage();
+        AppState state = storage.load();
+        record(storage, state, 10);
+        storage.compact();
+
+        // February is the current month and January the previous one: both are read at startup
+        AppState february = storage().load();
+        assertTrue(february.isHistoryLoaded());
+        assertEquals(10, february.getSessions().size());
+
+        clock = Clock.fixed(Instant.parse("2024-03-15T12:00:00Z"), ZoneOffset.UTC);
+        AppState march = storage().load();
+        assertFalse(march.isHistoryLoaded());
+        assertEquals(2, march.getSessions().size());
+        march.ensureLoadedFrom(LocalDate.of(2024, 2, 1));
+        assertEquals(2, march.getSessions().size());
+        march.ensureLoadedFrom(LocalDate.of(2024, 1, 31));
+        assertTrue(march.isHistoryLoaded());
+        assertEquals(10, march.getSessions().size());
+    }
+
+    private String partitionFile(String month) throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("sessions"))) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(month + "-"))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package lablabu.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerEngineTest {
+    private SimulatedClock clock;
+    private ManualTickScheduler scheduler;
+    private TimerEngine engine;
+    private final List<Integer> shown = new ArrayList<>();
+    private int phasesCompleted;
+
+    @BeforeEach
+    void setUp() {
+        clock = new SimulatedClock(Instant.parse("2024-03-01T09:00:00Z"), ZoneOffset.UTC);
+        scheduler = new ManualTickScheduler();
+        engine = new TimerEngine(scheduler, clock::nanoTime, clock, shown::add, () -> phasesCompleted++);
+        engine.setSleepPolicy(SleepPolicy.PAUSE);
+    }
+
+    // One tick per interval, the way a scheduler that keeps up would deliver them
+    private void run(Duration duration, Duration tickEvery) {
+        for (long left = duration.toNanos(); left > 0; left -= tickEvery.toNanos()) {
+            clock.advanceNanos(Math.min(left, tickEvery.toNanos()));
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void lateTicksDoNotLoseTime() {
+        engine.start();
+        run(Duration.ofSeconds(3), Duration.ofMillis(200));
+        // A 7.3s gap between two ticks, well under the stall threshold
+        clock.advance(Duration.ofMillis(7_300));
+        scheduler.tick();
+        run(Duration.ofMillis(700), Duration.ofMillis(350));
+
+        assertEquals(11, engine.getSecondsPassed());
+        assertEquals(Duration.ofSeconds(11).toNanos(), engine.getElapsedNanos());
+        assertEquals(11, shown.get(shown.size() - 1));
+    }
+
+    @Test
+    void fractionalSecondsAreNotRoundedPerTick() {
+        engine.start();
+        // 1000 ticks of 1.3ms each: a frame-counting timer would drift, the monotonic one cannot
+        run(Duration.ofMillis(1_300), Duration.ofNanos(1_300_000));
+        assertEquals(Duration.ofMillis(1_300).toNanos(), engine.getElapsedNanos());
+        assertEquals(1, engine.getSecondsPassed());
+    }
+
+    @Test
+    void pauseAndResumeAccumulate() {
+        engine.start();
+        run(Duration.ofMillis(2_500), Duration.ofMillis(200));
+        engine.stop();
+        assertFalse(scheduler.isStarted());
+
+        // Paused time is not counted
+        clock.advance(Duration.ofMinutes(3));
+        assertEquals(Duration.ofMillis(2_500).toNanos(), engine.getElapsedNanos());
+
+        engine.start();
+        run(Duration.ofMillis(1_700), Duration.ofMillis(200));
+        engine.stop();
+
+        assertEquals(Duration.ofMillis(4_200).toNanos(), engine.getElapsedNanos());
+        assertEquals(4, engine.getSecondsPassed());
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"), engine.getStartedAt());
+        assertEquals(Instant.parse("2024-03-01T09:03:04.200Z"), engine.getEndedAt());
+    }
+
+    @Test
+    void resetClearsElapsedTime() {
+        engine.start();
+        run(Duration.ofSeconds(5), Duration.ofMillis(200));
+        engine.reset();
+
+        assertFalse(engine.isRunning());
+        assertEquals(0, engine.getElapsedNanos());
+        assertEquals(null, engine.getStartedAt());
+    }
+
+    @Test
+    void countdownOvershootIsClampedToTarget() {
+        engine.setMode(TimerMode.CUSTOM);
+        engine.setCustomWorkMinutes(1);
+        engine.start();
+        run(Duration.ofSeconds(55), Duration.ofMillis(200));
+        assertEquals(5, shown.get(shown.size() - 1));
+
+        // The next tick arrives 4s after the end of the phase
+        clock.advance(Duration.ofSeconds(9));
+        scheduler.tick();
+
+        assertEquals(1, phasesCompleted);
+        assertFalse(engine.isRunning());
+        assertEquals(60, engine.getSecondsPassed());
+        assertEquals(Duration.ofSeconds(60).toNanos(), engine.getElapsedNanos());
+    }
+
+    @Test
+    void countdownCompletesOnTheExactSecond() {
+        engine.setMode(TimerMode.POMODORO);
+        engine.start();
+        run(Duration.ofMinutes(25).minusMillis(200), Duration.ofMillis(200));
+        assertTrue(engine.isRunning());
+        assertEquals(0, phasesCompleted);
+
+        run(Duration.ofMillis(200), Duration.ofMillis(200));
+        assertEquals(1, phasesCompleted);
+        assertEquals(25 * 60, engine.getSecondsPassed());
+    }
+
+    @Test
+    void stallKeepsTimeAndKeepsRunning() {
+        engine.start();
+        run(Duration.ofSeconds(10), Duration.ofMillis(200));
+        // GC pause, blocked FX thread or debugger stop: both clocks move together
+        clock.advance(Duration.ofSeconds(15));
+        scheduler.tick();
+
+        assertTrue(engine.isRunning());
+        assertEquals(25, engine.getSecondsPassed());
+        assertEquals(Instant.parse("2024-03-01T09:00:00Z"), engine.getStartedAt());
+    }
+
+    @Test
+    void stallPastCountdownEndCompletesThePhase() {
+        engine.setMode(TimerMode.CUSTOM);
+        engine.setCustomWorkMinutes(1);
+        engine.start();
+        run(Duration.ofSeconds(50), Duration.ofMillis(200));
+        clock.advance(Duration.ofSeconds(40));
+        scheduler.tick();
+
+        assertEquals(1, phasesCompleted);
+        assertEquals(60, engine.getSecondsPassed());
+    }
+
+    @Test
+    void stallIsNotReportedAsSleep() {
+        List<Long> sleeps = new ArrayList<>();
+        engine.setOnSleep(sleeps::add);
+        engine.start();
+        clock.advance(Duration.ofMinutes(2));
+        scheduler.tick();
+        engine.stop();
+
+        assertTrue(sleeps.isEmpty());
+        assertEquals(120, engine.getSecondsPassed());
+    }
+
+    @Test
+    void sleepPausesWithPausePolicy() {
+        List<Long> sleeps = new ArrayList<>();
+        engine.setOnSleep(sleeps::add);
+        engine.start();
+        run(Duration.ofSeconds(10), Duration.ofMillis(200));
+        clock.sleep(Duration.ofMinutes(30));
+        scheduler.tick();
+
+        assertFalse(engine.isRunning());
+        assertEquals(10, engine.getSecondsPassed());
+        assertEquals(List.of(Duration.ofMinutes(30).toNanos()), sleeps);
+        assertEquals(Instant.parse("2024-03-01T09:00:10Z"), engine.getEndedAt());
+    }
+
+    @Test
+    void sleepIsCountedWithKeepPolicy() {
+        engine.setSleepPolicy(SleepPolicy.KEEP);
+        engine.start();
+        run(Duration.ofSeconds(10), Duration.ofMillis(200));
+        clock.sleep(Duration.ofMinutes(30));
+        scheduler.tick();
+
+        assertTrue(engine.isRunning());
+        assertEquals(10 + 30 * 60, engine.getSecondsPassed());
+    }
+
+    @Test
+    void wallClockStepShiftsStartOnly() {
+        engine.start();
+        run(Duration.ofSeconds(5), Duration.ofMillis(200));
+        // NTP moves the wall clock back 3s; that is not focus time either way
+        clock.sleep(Duration.ofSeconds(-3));
+        run(Duration.ofSeconds(5), Duration.ofMillis(200));
+
+        assertTrue(engine.isRunning());
+        assertEquals(10, engine.getSecondsPassed());
+        assertEquals(Instant.parse("2024-03-01T08:59:57Z"), engine.getStartedAt());
+    }
+}
+
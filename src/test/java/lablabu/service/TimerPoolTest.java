@@ -0,0 +1,109 @@
+package lablabu.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerPoolTest {
+    private SimulatedClock clock;
+    private ManualTickScheduler driver;
+    private TimerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        clock = new SimulatedClock(Instant.parse("2024-03-01T09:00:00Z"), ZoneOffset.UTC);
+        driver = new ManualTickScheduler();
+        pool = new TimerPool(driver, clock::nanoTime, clock, 100);
+    }
+
+    private void run(Duration duration) {
+        for (long left = duration.toMillis(); left > 0; left -= 100) {
+            clock.advance(Duration.ofMillis(100));
+            driver.tick();
+        }
+    }
+
+    @Test
+    void manyTimersShareOneDriver() {
+        List<TimerPool.PooledTimer> timers = new ArrayList<>();
+        int[] lastShown = new int[300];
+        for (int i = 0; i < lastShown.length; i++) {
+            int index = i;
+            timers.add(pool.create("Category " + i, seconds -> lastShown[index] = seconds, null));
+        }
+        assertFalse(driver.isStarted());
+
+        for (int i = 0; i < timers.size(); i++) {
+            timers.get(i).start();
+            clock.advance(Duration.ofMillis(10));  // staggered starts, different second boundaries
+        }
+        assertTrue(driver.isStarted());
+        assertEquals(timers.size(), pool.getRunningCount());
+
+        run(Duration.ofSeconds(10));
+        for (int i = 0; i < timers.size(); i++) {
+            long elapsed = timers.get(i).getEngine().getElapsedNanos();
+            assertEquals(elapsed / 1_000_000_000L, lastShown[i], "timer " + i);
+        }
+
+        for (TimerPool.PooledTimer timer : timers) {
+            timer.stop();
+        }
+        assertEquals(0, pool.getRunningCount());
+        assertFalse(driver.isStarted());
+    }
+
+    @Test
+    void phaseCompletionsFireInDeadlineOrder() {
+        List<String> completed = new ArrayList<>();
+        int[] workMinutes = {3, 1, 2};
+        List<TimerPool.PooledTimer> timers = new ArrayList<>();
+        for (int minutes : workMinutes) {
+            String category = minutes + " min";
+            TimerPool.PooledTimer timer = pool.create(category, seconds -> { }, () -> completed.add(category));
+            timer.getEngine().setCustomWorkMinutes(minutes);
+            timer.getEngine().setMode(TimerMode.CUSTOM);
+            timers.add(timer);
+        }
+        for (TimerPool.PooledTimer timer : timers) {
+            timer.start();
+        }
+
+        // One late driver tick past every deadline still delivers them in order
+        clock.advance(Duration.ofMinutes(5));
+        driver.tick();
+
+        assertEquals(List.of("1 min", "2 min", "3 min"), completed);
+        for (TimerPool.PooledTimer timer : timers) {
+            assertFalse(timer.getEngine().isRunning());
+            assertEquals(timer.getEngine().getTargetSeconds(), timer.getEngine().getSecondsPassed());
+        }
+        assertFalse(driver.isStarted());
+    }
+
+    @Test
+    void pausedTimerKeepsItsTimeWhileOthersRun() {
+        int[] coding = new int[1];
+        TimerPool.PooledTimer math = pool.create("Math", seconds -> { }, null);
+        TimerPool.PooledTimer code = pool.create("Coding", seconds -> coding[0] = seconds, null);
+        math.start();
+        code.start();
+        run(Duration.ofSeconds(4));
+        math.stop();
+        run(Duration.ofSeconds(6));
+
+        assertEquals(4, math.getEngine().getSecondsPassed());
+        assertEquals(10, code.getEngine().getSecondsPassed());
+        assertEquals(10, coding[0]);
+        assertEquals(1, pool.getRunningCount());
+    }
+}
@@ -0,0 +1,108 @@
+package lablabu.service;
+
+import lablabu.model.AppState;
+import lablabu.model.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindStorageTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T18:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    // Records what reaches the journal; the first append can be held to let a backlog build up
+    private class RecordingStorage extends StorageService {
+        final List<JournalRecord> appended = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstAppendStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        RecordingStorage() {
+            super(true, directory, CLOCK);
+        }
+
+        @Override
+        void append(JournalRecord record) {
+            firstAppendStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            appended.add(record);
+            super.append(record);
+        }
+    }
+
+    private static Session session(int minute) {
+        String start = String.format("2024-03-01T09:%02d:30", minute);
+        return new Session("Math", 60, "2024-03-01", start, String.format("2024-03-01T09:%02d:30", minute + 1));
+    }
+
+    @Test
+    void settingsBurstIsCoalescedAndSessionsKeepTheirOrder() throws InterruptedException {
+        RecordingStorage recording = new RecordingStorage();
+        WriteBehindStorage storage = new WriteBehindStorage(recording);
+        AppState state = storage.load();
+
+        storage.appendSession(state, session(0));
+        assertTrue(recording.firstAppendStarted.await(5, TimeUnit.SECONDS));
+
+        // The writer is busy: these queue up behind it
+        for (int minutes = 21; minutes <= 25; minutes++) {
+            state.setPomodoroWorkMinutes(minutes);
+            storage.saveSettings(state);
+        }
+        storage.appendSession(state, session(10));
+        storage.appendSession(state, session(20));
+        assertEquals(3, storage.getQueueDepth());
+
+        recording.release.countDown();
+        storage.flush();
+        assertEquals(0, storage.getQueueDepth());
+        assertEquals(4, storage.getSettingsCoalesced());
+        assertEquals(4, storage.getRecordsWritten());
+
+        List<JournalRecord> appended = recording.appended;
+        assertEquals(4, appended.size());
+        assertEquals("2024-03-01T09:00:30", appended.get(0).session.getStartTime());
+        assertEquals("2024-03-01T09:10:30", appended.get(1).session.getStartTime());
+        assertEquals("2024-03-01T09:20:30", appended.get(2).session.getStartTime());
+        assertEquals(25, appended.get(3).pomodoroWorkMinutes.intValue());
+        storage.close();
+    }
+
+    @Test
+    void closeWritesEverythingQueued() {
+        RecordingStorage recording = new RecordingStorage();
+        recording.release.countDown();
+        WriteBehindStorage storage = new WriteBehindStorage(recording);
+        AppState state = storage.load();
+        for (int i = 0; i < 30; i++) {
+            Session session = session(i);
+            state.addSession(session);
+            storage.appendSession(state, session);
+        }
+        state.setTheme("light");
+        storage.saveSettings(state);
+        storage.close();
+
+        assertEquals(0, storage.getQueueDepth());
+        AppState loaded = new StorageService(true, directory, CLOCK).load();
+        assertEquals(30, loaded.getSessions().size());
+        assertEquals("light", loaded.getTheme());
+    }
+}